@@ -0,0 +1,67 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.operators.Aggregates;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting and summing a long stream with {@code map().scan().last()} (as in {@code SnippetsTest})
+ * against the fused {@link Aggregates} operators.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AggregatesBenchmark {
+
+    private static final Func1<Integer, Integer> MAP_EACH_OCCURRENCE_TO_ONE = new Func1<Integer, Integer>() {
+        @Override
+        public Integer call(Integer nextValue) {
+            return 1;
+        }
+    };
+
+    private static final Func2<Integer, Integer, Integer> SUM = new Func2<Integer, Integer, Integer>() {
+        @Override
+        public Integer call(Integer accumulator, Integer value) {
+            return accumulator + value;
+        }
+    };
+
+    @Param({"10000000"})
+    public int count;
+
+    private Observable<Integer> source;
+
+    @Setup
+    public void setUp() {
+        source = Observable.range(0, count);
+    }
+
+    @Benchmark
+    public void countWithMapScanLast(Blackhole blackhole) {
+        blackhole.consume(source.map(MAP_EACH_OCCURRENCE_TO_ONE).scan(SUM).last().toBlocking().single());
+    }
+
+    @Benchmark
+    public void countFused(Blackhole blackhole) {
+        blackhole.consume(source.lift(Aggregates.<Integer>count()).toBlocking().single());
+    }
+
+    @Benchmark
+    public void sumWithScanLast(Blackhole blackhole) {
+        blackhole.consume(source.scan(SUM).last().toBlocking().single());
+    }
+
+    @Benchmark
+    public void sumFused(Blackhole blackhole) {
+        blackhole.consume(source.lift(Aggregates.sumOfInts()).toBlocking().single());
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.blocking.LowLatencyBlockingObservable;
+import io.github.iluu.rx.examples.blocking.WaitStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handing values from a computation thread to a blocked caller: {@code toBlocking()} against
+ * {@link LowLatencyBlockingObservable} with each wait strategy, for a single value (latency) and for
+ * iterating a stream (throughput, with and without batches). Spinning only pays off with a spare core.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingHandoffBenchmark {
+
+    public enum Strategy {
+        PARK(WaitStrategy.PARK),
+        SPIN_THEN_PARK(WaitStrategy.spinThenPark(10000, 100)),
+        YIELD(WaitStrategy.YIELD),
+        BUSY_SPIN(WaitStrategy.BUSY_SPIN);
+
+        final WaitStrategy strategy;
+
+        Strategy(WaitStrategy strategy) {
+            this.strategy = strategy;
+        }
+    }
+
+    @Param({"PARK", "SPIN_THEN_PARK", "YIELD", "BUSY_SPIN"})
+    public Strategy strategy;
+
+    @Param({"10000"})
+    public int count;
+
+    private Observable<Integer> single;
+    private Observable<Integer> stream;
+
+    @Setup
+    public void setUp() {
+        single = Observable.just(1).subscribeOn(Schedulers.computation());
+        stream = Observable.range(0, count).subscribeOn(Schedulers.computation());
+    }
+
+    @Benchmark
+    public Integer singleToBlocking() {
+        return single.toBlocking().single();
+    }
+
+    @Benchmark
+    public Integer singleLowLatency() {
+        return LowLatencyBlockingObservable.from(single, strategy.strategy).single();
+    }
+
+    @Benchmark
+    public void iterateToBlocking(Blackhole blackhole) {
+        Iterator<Integer> iterator = stream.toBlocking().getIterator();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public void iterateLowLatency(Blackhole blackhole) {
+        Iterator<Integer> iterator = LowLatencyBlockingObservable.from(stream, strategy.strategy).getIterator();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public void iterateBatches(Blackhole blackhole) {
+        LowLatencyBlockingObservable.BatchIterator<Integer> iterator =
+                LowLatencyBlockingObservable.from(stream, strategy.strategy).getIterator();
+        Integer[] batch = new Integer[256];
+        int size;
+        while ((size = iterator.nextBatch(batch, batch.length)) != -1) {
+            for (int i = 0; i < size; i++) {
+                blackhole.consume(batch[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.iluu.rx.examples;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Func1;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many concurrent subscriptions each blocking in {@code map}, as a remote lookup would.
+ * Compares the fixed computation pool against thread-per-worker schedulers.
+ * {@code VIRTUAL} needs to be run on Java 21 or newer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingIoBenchmark {
+
+    @Param({"100", "10000"})
+    public int subscriptions;
+
+    @Param({"1"})
+    public int blockMillis;
+
+    @Param({"COMPUTATION", "IO", "VIRTUAL"})
+    public SchedulerType scheduler;
+
+    private Scheduler instance;
+
+    private final Func1<Integer, Integer> blockingLookup = new Func1<Integer, Integer>() {
+        @Override
+        public Integer call(Integer id) {
+            try {
+                Thread.sleep(blockMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return id * 2;
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        instance = scheduler.scheduler();
+    }
+
+    @Benchmark
+    public void concurrentBlockingSubscriptions(final Blackhole blackhole) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(subscriptions);
+        for (int i = 0; i < subscriptions; i++) {
+            Observable.just(i).subscribeOn(instance).map(blockingLookup).subscribe(new Subscriber<Integer>() {
+                @Override
+                public void onNext(Integer value) {
+                    blackhole.consume(value);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
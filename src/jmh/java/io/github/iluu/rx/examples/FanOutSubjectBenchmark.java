@@ -0,0 +1,110 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.subjects.FanOutSubject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch and subscribe/unsubscribe churn of {@code PublishSubject} against {@link FanOutSubject}
+ * with many subscribers attached. One dispatch operation is {@code BATCH} values delivered to everyone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FanOutSubjectBenchmark {
+
+    private static final int BATCH = 100;
+    private static final int MARKER = -1;
+
+    public enum Kind {
+        PUBLISH, FAN_OUT, FAN_OUT_PARALLEL
+    }
+
+    @Param({"1", "100", "10000", "100000"})
+    public int subscribers;
+
+    @Param({"PUBLISH", "FAN_OUT", "FAN_OUT_PARALLEL"})
+    public Kind kind;
+
+    private Subject<Integer, Integer> subject;
+    private volatile CountDownLatch delivered;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        switch (kind) {
+            case PUBLISH:
+                subject = PublishSubject.create();
+                break;
+            case FAN_OUT:
+                subject = FanOutSubject.create();
+                break;
+            default:
+                subject = FanOutSubject.createParallel(Schedulers.computation(),
+                        Runtime.getRuntime().availableProcessors());
+        }
+        for (int i = 0; i < subscribers; i++) {
+            subject.subscribe(new Subscriber<Integer>() {
+                @Override
+                public void onNext(Integer value) {
+                    if (value == MARKER) {
+                        delivered.countDown();
+                    } else {
+                        blackhole.consume(value);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        subject.onCompleted();
+    }
+
+    @Benchmark
+    public void dispatch() throws InterruptedException {
+        delivered = new CountDownLatch(subscribers);
+        for (int i = 0; i < BATCH; i++) {
+            subject.onNext(i);
+        }
+        subject.onNext(MARKER);
+        delivered.await();
+    }
+
+    @Benchmark
+    public void subscribeUnsubscribe() {
+        Subscription subscription = subject.subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        subscription.unsubscribe();
+    }
+}
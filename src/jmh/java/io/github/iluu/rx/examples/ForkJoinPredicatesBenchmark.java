@@ -0,0 +1,80 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.sources.ForkJoinPredicates;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Observable.from(list)} with {@code all} and {@code filter} against {@link ForkJoinPredicates} on the
+ * default pool, for a cheap and a CPU-heavy predicate. Scaling is only visible on a multi-core machine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ForkJoinPredicatesBenchmark {
+
+    @Param({"1000000"})
+    public int count;
+
+    /**
+     * Work per element in {@link Blackhole#consumeCPU} tokens.
+     */
+    @Param({"0", "100"})
+    public int cost;
+
+    private List<Integer> values;
+    private Func1<Integer, Boolean> nonNegative;
+    private Func1<Integer, Boolean> even;
+
+    @Setup
+    public void setUp() {
+        values = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(i);
+        }
+        final long tokens = cost;
+        nonNegative = new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer value) {
+                Blackhole.consumeCPU(tokens);
+                return value >= 0;
+            }
+        };
+        even = new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer value) {
+                Blackhole.consumeCPU(tokens);
+                return value % 2 == 0;
+            }
+        };
+    }
+
+    @Benchmark
+    public boolean allSequential() {
+        return Observable.from(values).all(nonNegative).toBlocking().single();
+    }
+
+    @Benchmark
+    public boolean allForkJoin() {
+        return ForkJoinPredicates.all(values, nonNegative).toBlocking().single();
+    }
+
+    @Benchmark
+    public int filterSequential() {
+        return Observable.from(values).filter(even).toList().toBlocking().single().size();
+    }
+
+    @Benchmark
+    public int filterForkJoin() {
+        return ForkJoinPredicates.filter(values, even).toList().toBlocking().single().size();
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.functions.Action1;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of instrumenting every step of {@link SchedulingSamples#mainThreadSample}: plain pipeline against
+ * the instrumented one with latency sampled sparsely and on every value.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+
+    private static final Action1<Integer> NO_OP = new Action1<Integer>() {
+        @Override
+        public void call(Integer value) {
+        }
+    };
+
+    @Param({"100000"})
+    public int count;
+
+    @Param({"1024", "1"})
+    public int sampleEvery;
+
+    private MetricsRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = MetricsRegistry.create();
+    }
+
+    @Benchmark
+    public long plain(Blackhole blackhole) throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        SchedulingSamples.mainThreadSample(count, NO_OP, NO_OP).subscribe(subscriber);
+        return subscriber.await();
+    }
+
+    @Benchmark
+    public long instrumented(Blackhole blackhole) throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        SchedulingSamples.instrumentedSample(count, registry, sampleEvery, NO_OP, NO_OP).subscribe(subscriber);
+        return subscriber.await();
+    }
+}
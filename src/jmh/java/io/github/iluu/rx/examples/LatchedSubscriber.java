@@ -0,0 +1,49 @@
+package io.github.iluu.rx.examples;
+
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Subscriber;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Sinks every value into a blackhole and lets the benchmark thread wait for the terminal event,
+ * so asynchronous pipelines are measured end to end.
+ */
+public class LatchedSubscriber<T> extends Subscriber<T> {
+    private final Blackhole blackhole;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private long received;
+    private Throwable error;
+
+    public LatchedSubscriber(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void onNext(T value) {
+        received++;
+        blackhole.consume(value);
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        error = e;
+        done.countDown();
+    }
+
+    @Override
+    public void onCompleted() {
+        done.countDown();
+    }
+
+    /**
+     * Blocks until the pipeline terminates and returns the number of values received.
+     */
+    public long await() throws InterruptedException {
+        done.await();
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+        return received;
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.sources.OnSubscribeMappedFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.Subscriber;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the lines of a log-like file through a {@code BufferedReader} into an {@code Observable}, against
+ * {@link OnSubscribeMappedFile} emitting views of the mapping, with and without decoding them to strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappedFileBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Param({"1000000"})
+    public int lines;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("events", ".log");
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8));
+        try {
+            for (int i = 0; i < lines; i++) {
+                out.write("2014-08-01T12:00:00.000 INFO event " + i + " received from node-" + (i % 16) + "\n");
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void bufferedReader(final Blackhole blackhole) {
+        Observable.create(new Observable.OnSubscribe<String>() {
+            @Override
+            public void call(Subscriber<? super String> child) {
+                try {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+                    try {
+                        String line;
+                        while ((line = reader.readLine()) != null && !child.isUnsubscribed()) {
+                            child.onNext(line);
+                        }
+                    } finally {
+                        reader.close();
+                    }
+                    child.onCompleted();
+                } catch (IOException e) {
+                    child.onError(e);
+                }
+            }
+        }).subscribe(new BlackholeSubscriber<String>(blackhole));
+    }
+
+    @Benchmark
+    public void mappedViews(Blackhole blackhole) {
+        OnSubscribeMappedFile.lines(file).subscribe(new BlackholeSubscriber<Object>(blackhole));
+    }
+
+    @Benchmark
+    public void mappedDecoded(Blackhole blackhole) {
+        OnSubscribeMappedFile.lines(file).map(OnSubscribeMappedFile.decode(UTF_8))
+                .subscribe(new BlackholeSubscriber<String>(blackhole));
+    }
+
+    private static final class BlackholeSubscriber<T> extends Subscriber<T> {
+        private final Blackhole blackhole;
+
+        BlackholeSubscriber(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onNext(T value) {
+            blackhole.consume(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new IllegalStateException(e);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
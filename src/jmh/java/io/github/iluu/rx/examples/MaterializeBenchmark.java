@@ -0,0 +1,61 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.notifications.FlyweightMaterialize;
+import io.github.iluu.rx.examples.notifications.OperatorRingObserveOn;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code materialize().dematerialize()}, synchronously and around {@code observeOn}, against the
+ * {@link FlyweightMaterialize} pair and {@link OperatorRingObserveOn}. Run with {@code -prof gc}: the
+ * difference in {@code gc.alloc.rate.norm} is the {@code Notification} per event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MaterializeBenchmark {
+
+    @Param({"1000000"})
+    public int count;
+
+    private Observable<Integer> source;
+
+    @Setup
+    public void setUp() {
+        source = Observable.range(0, count);
+    }
+
+    @Benchmark
+    public long materializeDematerialize(Blackhole blackhole) throws InterruptedException {
+        return run(source.materialize().<Integer>dematerialize(), blackhole);
+    }
+
+    @Benchmark
+    public long flyweight(Blackhole blackhole) throws InterruptedException {
+        return run(source.lift(FlyweightMaterialize.<Integer>materialize())
+                .lift(FlyweightMaterialize.<Integer>dematerialize()), blackhole);
+    }
+
+    @Benchmark
+    public long materializedObserveOn(Blackhole blackhole) throws InterruptedException {
+        return run(source.materialize().observeOn(Schedulers.computation()).<Integer>dematerialize(), blackhole);
+    }
+
+    @Benchmark
+    public long ringObserveOn(Blackhole blackhole) throws InterruptedException {
+        return run(source.lift(new OperatorRingObserveOn<Integer>(Schedulers.computation(), 1024)), blackhole);
+    }
+
+    private static long run(Observable<Integer> observable, Blackhole blackhole) throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        observable.subscribe(subscriber);
+        return subscriber.await();
+    }
+}
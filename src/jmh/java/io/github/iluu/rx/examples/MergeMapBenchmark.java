@@ -0,0 +1,69 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.operators.OperatorMergeMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unbounded {@code mergeMap} against {@code merge(observables, maxConcurrent)} and {@link OperatorMergeMap},
+ * with synchronous inners (fast path) and inners completing on the computation scheduler, standing in for
+ * remote calls. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MergeMapBenchmark {
+
+    @Param({"1000"})
+    public int count;
+
+    @Param({"4", "64"})
+    public int maxConcurrency;
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    private Observable<Integer> source;
+    private Func1<Integer, Observable<Integer>> inner;
+
+    @Setup
+    public void setUp() {
+        source = Observable.range(0, count);
+        inner = new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer value) {
+                Observable<Integer> range = Observable.range(value, 4);
+                return async ? range.subscribeOn(Schedulers.computation()) : range;
+            }
+        };
+    }
+
+    @Benchmark
+    public long unbounded(Blackhole blackhole) throws InterruptedException {
+        return run(source.mergeMap(inner), blackhole);
+    }
+
+    @Benchmark
+    public long mergeMaxConcurrent(Blackhole blackhole) throws InterruptedException {
+        return run(Observable.merge(source.map(inner), maxConcurrency), blackhole);
+    }
+
+    @Benchmark
+    public long bounded(Blackhole blackhole) throws InterruptedException {
+        return run(source.lift(new OperatorMergeMap<Integer, Integer>(inner, maxConcurrency)), blackhole);
+    }
+
+    private static long run(Observable<Integer> observable, Blackhole blackhole) throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        observable.subscribe(subscriber);
+        return subscriber.await();
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.operators.OperatorParallelRails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A CPU-heavy map moved to the computation scheduler with {@code observeOn}, which keeps it on one core,
+ * against the same map spread over one rail per core, merged in order and unordered.
+ * Scaling is only visible on a multi-core machine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelRailsBenchmark {
+
+    @Param({"10000"})
+    public int count;
+
+    /**
+     * Work per element in {@link Blackhole#consumeCPU} tokens.
+     */
+    @Param({"100", "10000"})
+    public int cost;
+
+    private int rails;
+    private Func1<Integer, Integer> heavyMap;
+
+    @Setup
+    public void setUp() {
+        rails = Runtime.getRuntime().availableProcessors();
+        final long tokens = cost;
+        heavyMap = new Func1<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) {
+                Blackhole.consumeCPU(tokens);
+                return value * 2;
+            }
+        };
+    }
+
+    @Benchmark
+    public long observeOnMap(Blackhole blackhole) throws InterruptedException {
+        return run(Observable.range(1, count).observeOn(Schedulers.computation()).map(heavyMap), blackhole);
+    }
+
+    @Benchmark
+    public long railsOrdered(Blackhole blackhole) throws InterruptedException {
+        return run(Observable.range(1, count)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), rails, heavyMap, true)),
+                blackhole);
+    }
+
+    @Benchmark
+    public long railsUnordered(Blackhole blackhole) throws InterruptedException {
+        return run(Observable.range(1, count)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), rails, heavyMap, false)),
+                blackhole);
+    }
+
+    private static long run(Observable<Integer> pipeline, Blackhole blackhole) throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        pipeline.subscribe(subscriber);
+        return subscriber.await();
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.iluu.rx.examples;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import io.github.iluu.rx.examples.logging.TraceSink;
+import io.github.iluu.rx.examples.primitive.IntObservable;
+import io.github.iluu.rx.examples.primitive.IntObserver;
+import rx.Observable;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the three {@link SchedulingSamples} pipelines.
+ * <p/>
+ * Primary score is whole pipelines per second; the {@code elements} secondary score is the element rate,
+ * its inverse being the per-element cost. Run with {@code gradle jmh}, which adds the GC profiler
+ * for allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulingSamplesBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Pipeline {
+        @Param({"10", "1000", "100000", "10000000"})
+        public int count;
+
+        /**
+         * Debug actions trace every element like {@code DebugAction} does, into a sink writing to a discarding stream.
+         */
+        @Param({"false", "true"})
+        public boolean debug;
+
+        SchedulingSamples.DebugAction generated;
+        SchedulingSamples.DebugAction multiplied;
+        TraceSink trace;
+
+        @Setup
+        public void setUp() {
+            if (debug) {
+                PrintStream discard = new PrintStream(new OutputStream() {
+                    @Override
+                    public void write(int b) {
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                    }
+                });
+                trace = TraceSink.start(65536, TraceSink.OverflowPolicy.DROP, discard);
+                generated = new SchedulingSamples.DebugAction("Generated: ", trace);
+                multiplied = new SchedulingSamples.DebugAction("Multiplied:", trace);
+            } else {
+                generated = new NoOpAction();
+                multiplied = new NoOpAction();
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws InterruptedException {
+            if (trace != null) {
+                trace.close();
+            }
+        }
+    }
+
+    private static class NoOpAction extends SchedulingSamples.DebugAction {
+        NoOpAction() {
+            super("", null);
+        }
+
+        @Override
+        public void call(Integer integer) {
+        }
+
+        @Override
+        public void call(int value) {
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Hop {
+        @Param({"COMPUTATION", "IO", "NEW_THREAD", "TRAMPOLINE"})
+        public SchedulerType scheduler;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"16", "256", "4096"})
+        public int batchSize;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Elements {
+        public long elements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            elements = 0;
+        }
+    }
+
+    @Benchmark
+    public void mainThreadSample(Pipeline pipeline, Elements counter, Blackhole blackhole) throws InterruptedException {
+        run(SchedulingSamples.mainThreadSample(pipeline.count, pipeline.generated, pipeline.multiplied),
+                counter, blackhole);
+    }
+
+    @Benchmark
+    public void mainThreadFusedSample(Pipeline pipeline, Elements counter, Blackhole blackhole)
+            throws InterruptedException {
+        run(SchedulingSamples.mainThreadFusedSample(pipeline.count, pipeline.generated, pipeline.multiplied),
+                counter, blackhole);
+    }
+
+    @Benchmark
+    public void subscribeOnSample(Pipeline pipeline, Hop hop, Elements counter, Blackhole blackhole)
+            throws InterruptedException {
+        run(SchedulingSamples.subscribeOnSample(pipeline.count, hop.scheduler.scheduler(),
+                pipeline.generated, pipeline.multiplied), counter, blackhole);
+    }
+
+    @Benchmark
+    public void observeOnSample(Pipeline pipeline, Hop hop, Elements counter, Blackhole blackhole)
+            throws InterruptedException {
+        run(SchedulingSamples.observeOnSample(pipeline.count, hop.scheduler.scheduler(),
+                pipeline.generated, pipeline.multiplied), counter, blackhole);
+    }
+
+    @Benchmark
+    public void observeOnBatchedSample(Pipeline pipeline, Hop hop, Batch batch, Elements counter,
+                                       Blackhole blackhole) throws InterruptedException {
+        run(SchedulingSamples.observeOnBatchedSample(pipeline.count, hop.scheduler.scheduler(), batch.batchSize,
+                pipeline.generated, pipeline.multiplied), counter, blackhole);
+    }
+
+    @Benchmark
+    public void mainThreadIntSample(Pipeline pipeline, Elements counter, Blackhole blackhole)
+            throws InterruptedException {
+        run(SchedulingSamples.mainThreadIntSample(pipeline.count, pipeline.generated, pipeline.multiplied),
+                counter, blackhole);
+    }
+
+    @Benchmark
+    public void subscribeOnIntSample(Pipeline pipeline, Hop hop, Elements counter, Blackhole blackhole)
+            throws InterruptedException {
+        run(SchedulingSamples.subscribeOnIntSample(pipeline.count, hop.scheduler.scheduler(),
+                pipeline.generated, pipeline.multiplied), counter, blackhole);
+    }
+
+    private static void run(IntObservable pipeline, Elements counter, final Blackhole blackhole)
+            throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final long[] received = new long[1];
+        final Throwable[] error = new Throwable[1];
+        pipeline.subscribe(new IntObserver() {
+            @Override
+            public void onNext(int value) {
+                received[0]++;
+                blackhole.consume(value);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                error[0] = e;
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        });
+        done.await();
+        if (error[0] != null) {
+            throw new IllegalStateException(error[0]);
+        }
+        counter.elements += received[0];
+    }
+
+    private static void run(Observable<Integer> pipeline, Elements counter, Blackhole blackhole)
+            throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        pipeline.subscribe(subscriber);
+        counter.elements += subscriber.await();
+    }
+}
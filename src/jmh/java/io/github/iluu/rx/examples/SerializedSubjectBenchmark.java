@@ -0,0 +1,88 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.subjects.MpscSerializedSubject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observer;
+import rx.Subscriber;
+import rx.observers.SerializedObserver;
+import rx.subjects.PublishSubject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code onNext} from several threads into one subject, serialized by a monitor, by {@link SerializedObserver}
+ * or by {@link MpscSerializedSubject}. Run with {@code -t} to vary the number of producer threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SerializedSubjectBenchmark {
+
+    public enum Kind {
+        SYNCHRONIZED, SERIALIZED_OBSERVER, MPSC
+    }
+
+    @Param({"SYNCHRONIZED", "SERIALIZED_OBSERVER", "MPSC"})
+    public Kind kind;
+
+    private Observer<Integer> input;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        Subscriber<Integer> consumer = new Subscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                blackhole.consume(value);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+        switch (kind) {
+            case SYNCHRONIZED:
+                final PublishSubject<Integer> locked = PublishSubject.create();
+                locked.subscribe(consumer);
+                input = new Observer<Integer>() {
+                    @Override
+                    public synchronized void onNext(Integer value) {
+                        locked.onNext(value);
+                    }
+
+                    @Override
+                    public synchronized void onError(Throwable e) {
+                        locked.onError(e);
+                    }
+
+                    @Override
+                    public synchronized void onCompleted() {
+                        locked.onCompleted();
+                    }
+                };
+                break;
+            case SERIALIZED_OBSERVER:
+                PublishSubject<Integer> subject = PublishSubject.create();
+                subject.subscribe(consumer);
+                input = new SerializedObserver<Integer>(subject);
+                break;
+            default:
+                MpscSerializedSubject<Integer> mpsc = MpscSerializedSubject.create();
+                mpsc.subscribe(consumer);
+                input = mpsc;
+        }
+    }
+
+    @Benchmark
+    public void onNext() {
+        input.onNext(1);
+    }
+}
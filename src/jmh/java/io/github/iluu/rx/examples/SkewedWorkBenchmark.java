@@ -0,0 +1,82 @@
+package io.github.iluu.rx.examples;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriptions with skewed costs, one in {@code skew} being a hundred times as expensive, spread over the
+ * fixed computation event loops or the work-stealing pool. Sampled so the percentiles of a whole batch show
+ * how evenly the cores were kept busy; with {@code skew} a multiple of the number of cores, round-robin puts
+ * every expensive subscription on the same event loop.
+ * <p/>
+ * {@code hops} is the other case, short actions hopping between workers of the same scheduler.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SkewedWorkBenchmark {
+
+    private static final int CHEAP_TOKENS = 1000;
+
+    @Param({"256"})
+    public int subscriptions;
+
+    @Param({"8"})
+    public int skew;
+
+    @Param({"COMPUTATION", "WORK_STEALING"})
+    public SchedulerType scheduler;
+
+    private Scheduler instance;
+
+    private final Func1<Integer, Integer> skewedWork = new Func1<Integer, Integer>() {
+        @Override
+        public Integer call(Integer value) {
+            Blackhole.consumeCPU(value % skew == 0 ? CHEAP_TOKENS * 100 : CHEAP_TOKENS);
+            return value;
+        }
+    };
+
+    private final Func1<Integer, Observable<Integer>> onScheduler = new Func1<Integer, Observable<Integer>>() {
+        @Override
+        public Observable<Integer> call(Integer value) {
+            return Observable.just(value).subscribeOn(instance).map(skewedWork);
+        }
+    };
+
+    private final Func1<Integer, Integer> increment = new Func1<Integer, Integer>() {
+        @Override
+        public Integer call(Integer value) {
+            return value + 1;
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        instance = scheduler.scheduler();
+    }
+
+    @Benchmark
+    public long skewedSubscriptions(Blackhole blackhole) throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        Observable.range(0, subscriptions).mergeMap(onScheduler).subscribe(subscriber);
+        return subscriber.await();
+    }
+
+    @Benchmark
+    public long hops(Blackhole blackhole) throws InterruptedException {
+        LatchedSubscriber<Integer> subscriber = new LatchedSubscriber<Integer>(blackhole);
+        Observable.range(0, 1000).subscribeOn(instance).map(increment)
+                .observeOn(instance).map(increment)
+                .observeOn(instance).subscribe(subscriber);
+        return subscriber.await();
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.operators.TakeLast;
+import io.github.iluu.rx.examples.primitive.IntAction1;
+import io.github.iluu.rx.examples.primitive.IntObservable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.functions.Action1;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail of a long stream with the built-in {@code takeLast} against the {@link TakeLast} rings and
+ * {@link IntObservable#takeLast(int)}. Run with {@code -prof gc}: the boxed source still allocates an
+ * {@code Integer} per value, the unboxed pipeline only the ring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TakeLastBenchmark {
+
+    @Param({"10000000"})
+    public int count;
+
+    @Param({"1000"})
+    public int last;
+
+    @Benchmark
+    public void builtIn(final Blackhole blackhole) {
+        Observable.range(0, count).takeLast(last).subscribe(consumer(blackhole));
+    }
+
+    @Benchmark
+    public void ring(final Blackhole blackhole) {
+        Observable.range(0, count).lift(TakeLast.<Integer>last(last)).subscribe(consumer(blackhole));
+    }
+
+    @Benchmark
+    public void intRing(final Blackhole blackhole) {
+        Observable.range(0, count).lift(TakeLast.lastOfInts(last)).subscribe(consumer(blackhole));
+    }
+
+    @Benchmark
+    public void unboxed(final Blackhole blackhole) {
+        IntObservable.range(0, count).takeLast(last).subscribe(new IntAction1() {
+            @Override
+            public void call(int value) {
+                blackhole.consume(value);
+            }
+        });
+    }
+
+    private static Action1<Integer> consumer(final Blackhole blackhole) {
+        return new Action1<Integer>() {
+            @Override
+            public void call(Integer value) {
+                blackhole.consume(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.operators.WindowedAggregates;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func1;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling max and sum over the last {@code window} values: recomputed from {@code buffer(window, 1)} against
+ * the incremental {@link WindowedAggregates}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WindowedAggregatesBenchmark {
+
+    private static final Func1<List<Integer>, Integer> MAX_OF_BUFFER = new Func1<List<Integer>, Integer>() {
+        @Override
+        public Integer call(List<Integer> buffer) {
+            return Collections.max(buffer);
+        }
+    };
+
+    private static final Func1<List<Integer>, Long> SUM_OF_BUFFER = new Func1<List<Integer>, Long>() {
+        @Override
+        public Long call(List<Integer> buffer) {
+            long sum = 0;
+            for (Integer value : buffer) {
+                sum += value;
+            }
+            return sum;
+        }
+    };
+
+    @Param({"100000"})
+    public int count;
+
+    @Param({"16", "1024"})
+    public int window;
+
+    private Observable<Integer> source;
+
+    @Setup
+    public void setUp() {
+        source = Observable.range(0, count).map(new Func1<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) {
+                // saw tooth, so the max has to be searched for once the largest value leaves the window
+                return value % 1000;
+            }
+        });
+    }
+
+    @Benchmark
+    public void maxRecomputed(Blackhole blackhole) {
+        source.buffer(window, 1).map(MAX_OF_BUFFER).subscribe(new BlackholeSubscriber(blackhole));
+    }
+
+    @Benchmark
+    public void maxIncremental(Blackhole blackhole) {
+        source.lift(WindowedAggregates.max(window)).subscribe(new BlackholeSubscriber(blackhole));
+    }
+
+    @Benchmark
+    public void sumRecomputed(Blackhole blackhole) {
+        source.buffer(window, 1).map(SUM_OF_BUFFER).subscribe(new BlackholeSubscriber(blackhole));
+    }
+
+    @Benchmark
+    public void sumIncremental(Blackhole blackhole) {
+        source.lift(WindowedAggregates.sum(window)).subscribe(new BlackholeSubscriber(blackhole));
+    }
+
+    private static final class BlackholeSubscriber extends Subscriber<Object> {
+        private final Blackhole blackhole;
+
+        BlackholeSubscriber(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onNext(Object value) {
+            blackhole.consume(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new IllegalStateException(e);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
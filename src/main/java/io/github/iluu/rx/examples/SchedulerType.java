@@ -0,0 +1,57 @@
+package io.github.iluu.rx.examples;
+
+import io.github.iluu.rx.examples.schedulers.VirtualThreadScheduler;
+import io.github.iluu.rx.examples.schedulers.WorkStealingScheduler;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Schedulers the samples and benchmarks can move work onto.
+ */
+public enum SchedulerType {
+
+    COMPUTATION {
+        @Override
+        public Scheduler scheduler() {
+            return Schedulers.computation();
+        }
+    },
+    IO {
+        @Override
+        public Scheduler scheduler() {
+            return Schedulers.io();
+        }
+    },
+    NEW_THREAD {
+        @Override
+        public Scheduler scheduler() {
+            return Schedulers.newThread();
+        }
+    },
+    TRAMPOLINE {
+        @Override
+        public Scheduler scheduler() {
+            return Schedulers.trampoline();
+        }
+    },
+    /**
+     * Work-stealing pool shared by all workers
+     */
+    WORK_STEALING {
+        @Override
+        public Scheduler scheduler() {
+            return WorkStealingScheduler.getDefault();
+        }
+    },
+    /**
+     * Thread per worker, needs a runtime with virtual threads
+     */
+    VIRTUAL {
+        @Override
+        public Scheduler scheduler() {
+            return VirtualThreadScheduler.create();
+        }
+    };
+
+    public abstract Scheduler scheduler();
+}
@@ -1,68 +1,177 @@
 package io.github.iluu.rx.examples;
 
+import io.github.iluu.rx.examples.fusion.FusedObservable;
+import io.github.iluu.rx.examples.logging.TraceSink;
+import io.github.iluu.rx.examples.metrics.LatencySection;
+import io.github.iluu.rx.examples.metrics.MetricsRegistry;
+import io.github.iluu.rx.examples.metrics.OperatorMetrics;
+import io.github.iluu.rx.examples.operators.OperatorBatchedObserveOn;
+import io.github.iluu.rx.examples.operators.OperatorParallelRails;
+import io.github.iluu.rx.examples.primitive.IntAction1;
+import io.github.iluu.rx.examples.primitive.IntFunc1;
+import io.github.iluu.rx.examples.primitive.IntObservable;
 import rx.Observable;
+import rx.Scheduler;
 import rx.functions.Action1;
 import rx.functions.Func1;
-import rx.schedulers.Schedulers;
+
+import java.util.concurrent.TimeUnit;
 
 public class SchedulingSamples {
 
-    private static Func1<Integer, Integer> multiplyFunc = new Func1<Integer, Integer>() {
+    static final Func1<Integer, Integer> multiplyFunc = new Func1<Integer, Integer>() {
         @Override
         public Integer call(Integer integer) {
             return integer * 2;
         }
     };
 
-    private static final DebugAction generated = new DebugAction("Generated: ");
-    private static final DebugAction multiplied = new DebugAction("Multiplied:");
-    private static final DebugAction received = new DebugAction("Received:  ");
+    static final IntFunc1 multiplyIntFunc = new IntFunc1() {
+        @Override
+        public int call(int value) {
+            return value * 2;
+        }
+    };
+
+    private static final TraceSink trace = TraceSink.start(1024, TraceSink.OverflowPolicy.BLOCK, System.out);
+    private static final DebugAction generated = new DebugAction("Generated: ", trace);
+    private static final DebugAction multiplied = new DebugAction("Multiplied:", trace);
+    private static final DebugAction received = new DebugAction("Received:  ", trace);
 
+    /**
+     * Optional first argument picks the scheduler (see {@link SchedulerType}), defaults to computation.
+     */
     public static void main(String[] args) {
-        mainThreadSample();
-        subscribeOnSample();
-        observeOnSample();
+        Scheduler scheduler = (args.length > 0 ? SchedulerType.valueOf(args[0]) : SchedulerType.COMPUTATION).scheduler();
+
+        mainThreadSample(10, generated, multiplied).subscribe(received);
+        subscribeOnSample(10, scheduler, generated, multiplied).subscribe(received);
+        observeOnSample(10, scheduler, generated, multiplied).subscribe(received);
+        mainThreadIntSample(10, generated, multiplied).subscribe(received);
+        mainThreadFusedSample(10, generated, multiplied).subscribe(received);
+        parallelSample(10, scheduler, Runtime.getRuntime().availableProcessors(), true, generated, multiplied)
+                .subscribe(received);
+        trace.flush();
+
+        MetricsRegistry registry = MetricsRegistry.create();
+        instrumentedSample(1000, registry, 16, generated, multiplied).subscribe(received);
+        trace.flush();
+        for (OperatorMetrics.Snapshot snapshot : registry.snapshot()) {
+            System.out.println(snapshot);
+        }
     }
 
     /**
      * All in main thread
      */
-    private static void mainThreadSample() {
-        Observable.range(1, 10).doOnNext(generated)
-                .map(multiplyFunc).doOnNext(multiplied)
-                .subscribe(received);
+    static Observable<Integer> mainThreadSample(int count, Action1<Integer> generated, Action1<Integer> multiplied) {
+        return Observable.range(1, count).doOnNext(generated)
+                .map(multiplyFunc).doOnNext(multiplied);
     }
 
     /**
-     * All executed in computation thread
+     * All in main thread, the steps fused into a single loop over the range
      */
-    private static void subscribeOnSample() {
-        Observable.range(1, 10).doOnNext(generated)
-                .subscribeOn(Schedulers.computation())
-                .map(multiplyFunc).doOnNext(multiplied)
-                .subscribe(received);
+    static Observable<Integer> mainThreadFusedSample(int count, Action1<Integer> generated,
+                                                     Action1<Integer> multiplied) {
+        return FusedObservable.range(1, count).doOnNext(generated)
+                .map(multiplyFunc).doOnNext(multiplied).toObservable();
     }
 
     /**
-     * Generation in main thread, computation on computation thread
+     * All in main thread, every step counted into metrics of the registry and the time from the range to the
+     * end of the chain sampled into the "pipeline" metrics
      */
-    private static void observeOnSample() {
-        Observable.range(1, 10).doOnNext(generated)
-                .observeOn(Schedulers.computation())
-                .map(multiplyFunc).doOnNext(multiplied)
-                .subscribe(received);
+    static Observable<Integer> instrumentedSample(int count, MetricsRegistry registry, int sampleEvery,
+                                                  Action1<Integer> generated, Action1<Integer> multiplied) {
+        LatencySection pipeline = registry.section("pipeline", sampleEvery);
+        return Observable.range(1, count).lift(registry.<Integer>instrument("range"))
+                .lift(pipeline.<Integer>begin())
+                .doOnNext(generated).lift(registry.<Integer>instrument("doOnNext generated"))
+                .map(multiplyFunc).lift(registry.<Integer>instrument("map"))
+                .doOnNext(multiplied).lift(registry.<Integer>instrument("doOnNext multiplied"))
+                .lift(pipeline.<Integer>end());
+    }
+
+    /**
+     * All executed in scheduler thread
+     */
+    static Observable<Integer> subscribeOnSample(int count, Scheduler scheduler,
+                                                 Action1<Integer> generated, Action1<Integer> multiplied) {
+        return Observable.range(1, count).doOnNext(generated)
+                .subscribeOn(scheduler)
+                .map(multiplyFunc).doOnNext(multiplied);
+    }
+
+    /**
+     * Generation in main thread, computation on scheduler thread
+     */
+    static Observable<Integer> observeOnSample(int count, Scheduler scheduler,
+                                               Action1<Integer> generated, Action1<Integer> multiplied) {
+        return Observable.range(1, count).doOnNext(generated)
+                .observeOn(scheduler)
+                .map(multiplyFunc).doOnNext(multiplied);
     }
 
-    private static class DebugAction implements Action1<Integer> {
+    /**
+     * Generation in main thread, computation on scheduler thread which receives values in batches
+     */
+    static Observable<Integer> observeOnBatchedSample(int count, Scheduler scheduler, int batchSize,
+                                                      Action1<Integer> generated, Action1<Integer> multiplied) {
+        return Observable.range(1, count).doOnNext(generated)
+                .lift(new OperatorBatchedObserveOn<Integer>(scheduler, batchSize, 1, TimeUnit.MILLISECONDS))
+                .map(multiplyFunc).doOnNext(multiplied);
+    }
+
+    /**
+     * Generation in main thread, computation spread over several scheduler threads and merged back in order
+     * or as soon as each value is ready
+     */
+    static Observable<Integer> parallelSample(int count, Scheduler scheduler, int rails, boolean ordered,
+                                              Action1<Integer> generated, Action1<Integer> multiplied) {
+        return Observable.range(1, count).doOnNext(generated)
+                .lift(new OperatorParallelRails<Integer, Integer>(scheduler, rails, multiplyFunc, ordered))
+                .doOnNext(multiplied);
+    }
+
+    /**
+     * All in main thread, without boxing
+     */
+    static IntObservable mainThreadIntSample(int count, IntAction1 generated, IntAction1 multiplied) {
+        return IntObservable.range(1, count).doOnNext(generated)
+                .map(multiplyIntFunc).doOnNext(multiplied);
+    }
+
+    /**
+     * All executed in scheduler thread, without boxing
+     */
+    static IntObservable subscribeOnIntSample(int count, Scheduler scheduler,
+                                              IntAction1 generated, IntAction1 multiplied) {
+        return IntObservable.range(1, count).doOnNext(generated)
+                .subscribeOn(scheduler)
+                .map(multiplyIntFunc).doOnNext(multiplied);
+    }
+
+    /**
+     * Traces each value with the calling thread; records go to the sink's ring buffer, not straight to the console.
+     */
+    static class DebugAction implements Action1<Integer>, IntAction1 {
         private final String tag;
+        private final TraceSink sink;
 
-        public DebugAction(String tag) {
+        public DebugAction(String tag, TraceSink sink) {
             this.tag = tag;
+            this.sink = sink;
         }
 
         @Override
         public void call(Integer integer) {
-            System.out.println(Thread.currentThread() + " " + tag + " " + integer);
+            sink.record(tag, integer);
+        }
+
+        @Override
+        public void call(int value) {
+            sink.record(tag, value);
         }
     }
 }
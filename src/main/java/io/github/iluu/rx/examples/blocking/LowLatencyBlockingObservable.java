@@ -0,0 +1,287 @@
+package io.github.iluu.rx.examples.blocking;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.functions.Func1;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Blocking view of an observable, like {@code toBlocking()}, that waits with a chosen {@link WaitStrategy}
+ * instead of always parking on a latch.
+ * <p/>
+ * {@link #single()} and {@link #singleOrDefault} behave as their {@code BlockingObservable} counterparts,
+ * null values included. {@link #getIterator()} additionally lets the consumer take everything that has
+ * arrived in one call with {@link BatchIterator#nextBatch}, so a burst costs one wakeup rather than one per value.
+ */
+public final class LowLatencyBlockingObservable<T> {
+
+    private static final Object NULL = new Object();
+
+    private final Observable<? extends T> source;
+    private final WaitStrategy strategy;
+
+    private LowLatencyBlockingObservable(Observable<? extends T> source, WaitStrategy strategy) {
+        this.source = source;
+        this.strategy = strategy;
+    }
+
+    public static <T> LowLatencyBlockingObservable<T> from(Observable<? extends T> source, WaitStrategy strategy) {
+        return new LowLatencyBlockingObservable<T>(source, strategy);
+    }
+
+    /**
+     * The only value emitted.
+     *
+     * @throws IllegalArgumentException if more than one value is emitted
+     * @throws NoSuchElementException   if no value is emitted
+     */
+    public T single() {
+        return single(source, false, null);
+    }
+
+    public T single(Func1<? super T, Boolean> predicate) {
+        return single(source.filter(predicate), false, null);
+    }
+
+    /**
+     * The only value emitted, or {@code defaultValue} if there is none.
+     *
+     * @throws IllegalArgumentException if more than one value is emitted
+     */
+    public T singleOrDefault(T defaultValue) {
+        return single(source, true, defaultValue);
+    }
+
+    public T singleOrDefault(T defaultValue, Func1<? super T, Boolean> predicate) {
+        return single(source.filter(predicate), true, defaultValue);
+    }
+
+    /**
+     * Subscribes and returns an iterator over the values; unsubscribe it when not iterating to the end.
+     */
+    public BatchIterator<T> getIterator() {
+        BatchIterator<T> iterator = new BatchIterator<T>(strategy);
+        source.subscribe(iterator.subscriber);
+        return iterator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T single(Observable<? extends T> observable, boolean hasDefault, T defaultValue) {
+        SingleSubscriber<T> subscriber = new SingleSubscriber<T>();
+        observable.subscribe(subscriber);
+        await(subscriber.signal, subscriber);
+        if (subscriber.error != null) {
+            throw propagate(subscriber.error);
+        }
+        if (subscriber.count > 1) {
+            throw new IllegalArgumentException("Sequence contains too many elements");
+        }
+        if (subscriber.count == 0) {
+            if (hasDefault) {
+                return defaultValue;
+            }
+            throw new NoSuchElementException("Sequence contains no elements");
+        }
+        return subscriber.value;
+    }
+
+    private void await(WaitStrategy.Signal signal, Subscription subscription) {
+        try {
+            strategy.await(signal);
+        } catch (InterruptedException e) {
+            subscription.unsubscribe();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for subscription to complete.", e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new RuntimeException(e);
+    }
+
+    private static final class SingleSubscriber<T> extends Subscriber<T> {
+        /* written before done is set, read after it is seen */
+        T value;
+        int count;
+        Throwable error;
+        private volatile boolean done;
+
+        final WaitStrategy.Signal signal = new WaitStrategy.Signal() {
+            @Override
+            boolean isRaised() {
+                return done;
+            }
+        };
+
+        @Override
+        public void onNext(T next) {
+            if (++count == 1) {
+                value = next;
+            } else {
+                // a second value is enough to know the answer
+                unsubscribe();
+                finish();
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+            finish();
+        }
+
+        @Override
+        public void onCompleted() {
+            finish();
+        }
+
+        private void finish() {
+            done = true;
+            signal.raise();
+        }
+    }
+
+    /**
+     * Iterator over the values of a subscription, which can also take several values at once.
+     * Throws the error of the sequence, if any, once the values before it have been taken.
+     */
+    public static final class BatchIterator<T> implements Iterator<T>, Subscription {
+        private final WaitStrategy strategy;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+        private volatile boolean done;
+        private volatile Throwable error;
+        /* consumer only: value taken from the queue by hasNext but not returned yet */
+        private Object peeked;
+
+        private final WaitStrategy.Signal signal = new WaitStrategy.Signal() {
+            @Override
+            boolean isRaised() {
+                return !queue.isEmpty() || done;
+            }
+        };
+
+        final Subscriber<T> subscriber = new Subscriber<T>() {
+            @Override
+            public void onNext(T value) {
+                queue.offer(value == null ? NULL : value);
+                signal.raise();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                error = e;
+                done = true;
+                signal.raise();
+            }
+
+            @Override
+            public void onCompleted() {
+                done = true;
+                signal.raise();
+            }
+        };
+
+        BatchIterator(WaitStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (peeked == null) {
+                peeked = take();
+            }
+            return peeked != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object value = peeked;
+            peeked = null;
+            return value == NULL ? null : (T) value;
+        }
+
+        /**
+         * Waits for at least one value and copies it, with as many further values as have already arrived
+         * (at most {@code max}), into {@code batch}.
+         *
+         * @return number of values copied, -1 once the sequence has completed
+         */
+        @SuppressWarnings("unchecked")
+        public int nextBatch(T[] batch, int max) {
+            int limit = Math.min(max, batch.length);
+            if (limit < 1) {
+                throw new IllegalArgumentException("Batch must have room for a value");
+            }
+            if (!hasNext()) {
+                return -1;
+            }
+            Object value = peeked;
+            peeked = null;
+            int size = 0;
+            do {
+                batch[size++] = value == NULL ? null : (T) value;
+            } while (size < limit && (value = queue.poll()) != null);
+            return size;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void unsubscribe() {
+            subscriber.unsubscribe();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return subscriber.isUnsubscribed();
+        }
+
+        /**
+         * Next value, or null at the end of the sequence.
+         */
+        private Object take() {
+            for (; ; ) {
+                Object value = queue.poll();
+                if (value != null) {
+                    return value;
+                }
+                if (done) {
+                    // values may have arrived between the poll and reading done
+                    value = queue.poll();
+                    if (value != null) {
+                        return value;
+                    }
+                    if (error != null) {
+                        throw propagate(error);
+                    }
+                    return null;
+                }
+                try {
+                    strategy.await(signal);
+                } catch (InterruptedException e) {
+                    unsubscribe();
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for the next value.", e);
+                }
+            }
+        }
+    }
+}
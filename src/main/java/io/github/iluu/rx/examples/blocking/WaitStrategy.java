@@ -0,0 +1,86 @@
+package io.github.iluu.rx.examples.blocking;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits for a value from another thread: first busy-spinning, then yielding, then parking.
+ * <p/>
+ * Spinning reacts within nanoseconds but keeps a core busy (and on a machine with fewer cores than runnable
+ * threads delays the very producer it waits for); parking frees the core but waking up costs the tens of
+ * microseconds of an OS context switch, like the latch behind {@code toBlocking()}.
+ */
+public final class WaitStrategy {
+
+    /**
+     * Parks right away, like {@code toBlocking()}.
+     */
+    public static final WaitStrategy PARK = new WaitStrategy(0, 0);
+
+    /**
+     * Never parks, for consumers with a core of their own.
+     */
+    public static final WaitStrategy BUSY_SPIN = new WaitStrategy(Long.MAX_VALUE, 0);
+
+    /**
+     * Never parks, but lets other threads run between checks.
+     */
+    public static final WaitStrategy YIELD = new WaitStrategy(0, Long.MAX_VALUE);
+
+    private final long spins;
+    private final long yields;
+
+    private WaitStrategy(long spins, long yields) {
+        this.spins = spins;
+        this.yields = yields;
+    }
+
+    /**
+     * Spins {@code spins} times, then yields {@code yields} times, then parks.
+     */
+    public static WaitStrategy spinThenPark(int spins, int yields) {
+        if (spins < 0 || yields < 0) {
+            throw new IllegalArgumentException("Spins and yields can not be negative");
+        }
+        return new WaitStrategy(spins, yields);
+    }
+
+    /**
+     * Waits for the given signal to be raised, or the thread to be interrupted.
+     */
+    void await(Signal signal) throws InterruptedException {
+        for (long attempt = 0; !signal.isRaised(); attempt++) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (attempt < spins) {
+                continue;
+            }
+            if (attempt - spins < yields) {
+                Thread.yield();
+                continue;
+            }
+            signal.waiter = Thread.currentThread();
+            if (!signal.isRaised()) {
+                LockSupport.park(signal);
+            }
+            signal.waiter = null;
+        }
+    }
+
+    /**
+     * Condition a consumer waits on with a {@link WaitStrategy}. The producer calls {@link #raise()} after every
+     * change that may make it true, which wakes up a parked consumer.
+     */
+    abstract static class Signal {
+        volatile Thread waiter;
+
+        abstract boolean isRaised();
+
+        void raise() {
+            Thread parked = waiter;
+            if (parked != null) {
+                LockSupport.unpark(parked);
+            }
+        }
+    }
+}
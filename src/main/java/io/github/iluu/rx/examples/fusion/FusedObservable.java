@@ -0,0 +1,332 @@
+package io.github.iluu.rx.examples.fusion;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.functions.Func1;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builder for synchronous map/filter/doOnNext chains that are run as a single stage.
+ * <p/>
+ * Each operator only adds a step to the chain being assembled; {@link #toObservable()} then creates one
+ * subscriber (or, for {@link #range} and {@link #from(Iterable)} sources, one producer loop) that applies
+ * all steps to a value in a plain loop. Compared to lifting every operator this saves a subscriber per
+ * operator and a level of onNext calls per operator and value. The sources honor backpressure; values
+ * dropped by a filter don't count against the demand.
+ * <pre>
+ * FusedObservable.range(1, 10).doOnNext(generated).map(multiplyFunc).doOnNext(multiplied).toObservable()
+ * </pre>
+ */
+public final class FusedObservable<T> {
+
+    private static final int MAP = 0;
+    private static final int FILTER = 1;
+    private static final int DO_ON_NEXT = 2;
+    /* result of a chain run for a value dropped by a filter */
+    private static final Object SKIP = new Object();
+
+    private final Source source;
+    private final int[] kinds;
+    private final Object[] functions;
+
+    private FusedObservable(Source source, int[] kinds, Object[] functions) {
+        this.source = source;
+        this.kinds = kinds;
+        this.functions = functions;
+    }
+
+    /**
+     * Emits {@code count} sequential ints starting at {@code start}, pushing them straight into the chain.
+     */
+    public static FusedObservable<Integer> range(final int start, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count can not be negative");
+        }
+        if (count > 0 && start > Integer.MAX_VALUE - count + 1) {
+            throw new IllegalArgumentException("start + count can not exceed Integer.MAX_VALUE");
+        }
+        return new FusedObservable<Integer>(new Source() {
+            @Override
+            public Iterator<?> iterator() {
+                return new Iterator<Integer>() {
+                    private int next = start;
+                    private int remaining = count;
+
+                    @Override
+                    public boolean hasNext() {
+                        return remaining != 0;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (remaining == 0) {
+                            throw new NoSuchElementException();
+                        }
+                        remaining--;
+                        return next++;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        }, new int[0], new Object[0]);
+    }
+
+    public static <T> FusedObservable<T> from(final Iterable<? extends T> iterable) {
+        return new FusedObservable<T>(new Source() {
+            @Override
+            public Iterator<?> iterator() {
+                return iterable.iterator();
+            }
+        }, new int[0], new Object[0]);
+    }
+
+    /**
+     * Runs the chain as a single operator lifted on the given observable.
+     */
+    public static <T> FusedObservable<T> from(final Observable<T> observable) {
+        return new FusedObservable<T>(new Source() {
+            @Override
+            public Observable<?> observable() {
+                return observable;
+            }
+        }, new int[0], new Object[0]);
+    }
+
+    public <R> FusedObservable<R> map(Func1<? super T, ? extends R> func) {
+        return with(MAP, func);
+    }
+
+    public FusedObservable<T> filter(Func1<? super T, Boolean> predicate) {
+        return with(FILTER, predicate);
+    }
+
+    public FusedObservable<T> doOnNext(Action1<? super T> action) {
+        return with(DO_ON_NEXT, action);
+    }
+
+    private <R> FusedObservable<R> with(int kind, Object function) {
+        int length = kinds.length;
+        int[] nextKinds = new int[length + 1];
+        Object[] nextFunctions = new Object[length + 1];
+        System.arraycopy(kinds, 0, nextKinds, 0, length);
+        System.arraycopy(functions, 0, nextFunctions, 0, length);
+        nextKinds[length] = kind;
+        nextFunctions[length] = function;
+        return new FusedObservable<R>(source, nextKinds, nextFunctions);
+    }
+
+    public Observable<T> toObservable() {
+        final Chain chain = new Chain(kinds, functions);
+        final Observable<?> upstream = source.observable();
+        if (upstream != null) {
+            return lift(upstream, chain);
+        }
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> child) {
+                Iterator<?> iterator;
+                try {
+                    iterator = source.iterator();
+                } catch (Throwable e) {
+                    child.onError(e);
+                    return;
+                }
+                child.setProducer(new FusedProducer<T>(child, iterator, chain));
+            }
+        });
+    }
+
+    private static <S, T> Observable<T> lift(Observable<S> upstream, final Chain chain) {
+        return upstream.lift(new Observable.Operator<T, S>() {
+            @Override
+            public Subscriber<? super S> call(Subscriber<? super T> child) {
+                final FusedSubscriber<S, T> parent = new FusedSubscriber<S, T>(child, chain);
+                child.add(parent);
+                child.setProducer(new Producer() {
+                    @Override
+                    public void request(long n) {
+                        parent.requestMore(n);
+                    }
+                });
+                return parent;
+            }
+        });
+    }
+
+    /**
+     * Where values come from: either an iterator the fused loop pulls from or an observable to lift on.
+     */
+    private abstract static class Source {
+        Iterator<?> iterator() {
+            return null;
+        }
+
+        Observable<?> observable() {
+            return null;
+        }
+    }
+
+    /**
+     * The steps of a chain, run one after the other on a value.
+     */
+    private static final class Chain {
+        private final int[] kinds;
+        private final Object[] functions;
+
+        Chain(int[] kinds, Object[] functions) {
+            this.kinds = kinds;
+            this.functions = functions;
+        }
+
+        /**
+         * Value at the end of the chain, or {@link #SKIP} if a filter dropped it.
+         */
+        @SuppressWarnings("unchecked")
+        Object apply(Object value) {
+            for (int i = 0; i < kinds.length; i++) {
+                switch (kinds[i]) {
+                    case MAP:
+                        value = ((Func1<Object, Object>) functions[i]).call(value);
+                        break;
+                    case FILTER:
+                        if (!((Func1<Object, Boolean>) functions[i]).call(value)) {
+                            return SKIP;
+                        }
+                        break;
+                    default:
+                        ((Action1<Object>) functions[i]).call(value);
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Runs the chain on values of a lifted observable. It has its own link to the upstream producer, so
+     * values dropped by a filter can be replaced with {@code request(1)} whatever the child requested.
+     */
+    private static final class FusedSubscriber<S, T> extends Subscriber<S> {
+        private final Subscriber<? super T> child;
+        private final Chain chain;
+
+        FusedSubscriber(Subscriber<? super T> child, Chain chain) {
+            this.child = child;
+            this.chain = chain;
+            // nothing until the child asks, instead of the unbounded default
+            request(0);
+        }
+
+        void requestMore(long n) {
+            request(n);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(S value) {
+            Object result;
+            try {
+                result = chain.apply(value);
+            } catch (Throwable e) {
+                onError(e);
+                return;
+            }
+            if (result == SKIP) {
+                request(1);
+            } else {
+                child.onNext((T) result);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            unsubscribe();
+            child.onError(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            child.onCompleted();
+        }
+    }
+
+    private static final class FusedProducer<T> implements Producer {
+        private final Subscriber<? super T> child;
+        private final Iterator<?> iterator;
+        private final Chain chain;
+        private final AtomicLong requested = new AtomicLong();
+
+        FusedProducer(Subscriber<? super T> child, Iterator<?> iterator, Chain chain) {
+            this.child = child;
+            this.iterator = iterator;
+            this.chain = chain;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    if (current == 0) {
+                        emit(next);
+                    }
+                    return;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void emit(long demand) {
+            long r = demand;
+            for (; ; ) {
+                long emitted = 0;
+                boolean hasNext;
+                for (; ; ) {
+                    if (child.isUnsubscribed()) {
+                        return;
+                    }
+                    Object result;
+                    try {
+                        hasNext = iterator.hasNext();
+                        if (!hasNext || (emitted == r && r != Long.MAX_VALUE)) {
+                            break;
+                        }
+                        result = chain.apply(iterator.next());
+                    } catch (Throwable e) {
+                        child.onError(e);
+                        return;
+                    }
+                    if (result != SKIP) {
+                        child.onNext((T) result);
+                        emitted++;
+                    }
+                }
+                if (!hasNext) {
+                    if (!child.isUnsubscribed()) {
+                        child.onCompleted();
+                    }
+                    return;
+                }
+                r = requested.addAndGet(-emitted);
+                if (r == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.iluu.rx.examples.load;
+
+/**
+ * Event sent by a {@link LoadHarness} producer, stamped with {@link System#nanoTime()} values: when the schedule
+ * wanted it sent and when it actually was.
+ */
+public final class LoadEvent {
+    private final int producer;
+    private final long sequence;
+    private final long intendedNanos;
+    private final long sentNanos;
+
+    public LoadEvent(int producer, long sequence, long intendedNanos, long sentNanos) {
+        this.producer = producer;
+        this.sequence = sequence;
+        this.intendedNanos = intendedNanos;
+        this.sentNanos = sentNanos;
+    }
+
+    public int getProducer() {
+        return producer;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getIntendedNanos() {
+        return intendedNanos;
+    }
+
+    public long getSentNanos() {
+        return sentNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadEvent[" + producer + "#" + sequence + "]";
+    }
+}
@@ -0,0 +1,305 @@
+package io.github.iluu.rx.examples.load;
+
+import io.github.iluu.rx.examples.metrics.LatencyHistogram;
+import rx.Observable;
+import rx.Observer;
+import rx.Subscriber;
+import rx.exceptions.Exceptions;
+import rx.functions.Func1;
+import rx.observers.SerializedObserver;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a subject or a pipeline from several producer threads at a target rate and records the latency of
+ * every event from send to receipt, see {@link LoadProfile}.
+ * <pre>
+ * LoadReport report = LoadHarness.run(LoadProfile.openLoop(4, 100000, 10, TimeUnit.SECONDS),
+ *         new Func1&lt;Observable&lt;LoadEvent&gt;, Observable&lt;LoadEvent&gt;&gt;() {
+ *             public Observable&lt;LoadEvent&gt; call(Observable&lt;LoadEvent&gt; events) {
+ *                 return events.observeOn(Schedulers.computation());
+ *             }
+ *         });
+ * </pre>
+ * Also runnable from the command line, see {@link #main(String[])}.
+ */
+public final class LoadHarness {
+
+    /**
+     * Time for the producer threads to start before the first event is due.
+     */
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    /**
+     * Waits shorter than this are spun, {@code parkNanos} overshooting by tens of microseconds.
+     */
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    /**
+     * How long events still in flight after the last send are waited for.
+     */
+    private static final long DRAIN_TIMEOUT_SECONDS = 10;
+
+    private LoadHarness() {
+    }
+
+    /**
+     * Producers call the subject through a {@link SerializedObserver}, as a subject isn't safe to call
+     * concurrently.
+     */
+    public static LoadReport run(LoadProfile profile, Subject<LoadEvent, LoadEvent> subject) {
+        return run(profile, new SerializedObserver<LoadEvent>(subject), subject);
+    }
+
+    /**
+     * Producers send into a serialized {@link PublishSubject} which the pipeline is built upon.
+     */
+    public static LoadReport run(LoadProfile profile,
+                                 Func1<Observable<LoadEvent>, ? extends Observable<? extends LoadEvent>> pipeline) {
+        PublishSubject<LoadEvent> input = PublishSubject.create();
+        return run(profile, new SerializedObserver<LoadEvent>(input), pipeline.call(input));
+    }
+
+    /**
+     * Producers call {@code input} directly, so it must be safe to call from several threads when there is more
+     * than one producer; {@code output} is subscribed to before the first event is sent. Returns once
+     * {@code output} completes after the last send.
+     *
+     * @throws IllegalStateException if it doesn't complete within 10 seconds
+     */
+    public static LoadReport run(LoadProfile profile, Observer<? super LoadEvent> input,
+                                 Observable<? extends LoadEvent> output) {
+        return run(profile, input, output, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    static LoadReport run(LoadProfile profile, Observer<? super LoadEvent> input,
+                          Observable<? extends LoadEvent> output, long drainTimeout, TimeUnit unit) {
+        long start = System.nanoTime() + START_DELAY_NANOS;
+        long measureFrom = start + profile.getWarmupNanos();
+        long end = measureFrom + profile.getDurationNanos();
+
+        Recorder recorder = new Recorder(profile, measureFrom);
+        output.subscribe(recorder);
+
+        Producer[] producers = new Producer[profile.getProducers()];
+        Thread[] threads = new Thread[producers.length];
+        long interval = profile.getProducerIntervalNanos();
+        for (int i = 0; i < producers.length; i++) {
+            long first = start + i * interval / producers.length;
+            producers[i] = new Producer(i, profile.getMode(), input, recorder, first, interval, measureFrom, end);
+            threads[i] = new Thread(producers[i], "load-producer-" + i);
+            threads[i].start();
+        }
+
+        long sent = 0;
+        boolean drained;
+        try {
+            for (int i = 0; i < threads.length; i++) {
+                threads[i].join();
+                sent += producers[i].sent;
+            }
+            input.onCompleted();
+            drained = recorder.done.await(drainTimeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the load to complete.", e);
+        } finally {
+            recorder.unsubscribe();
+        }
+        if (!drained) {
+            // the recorder may still be running, its counts can't be read
+            throw new IllegalStateException("Output did not complete within " + unit.toMillis(drainTimeout)
+                    + " ms after the last of " + sent + " events was sent");
+        }
+        if (recorder.error != null) {
+            throw Exceptions.propagate(recorder.error);
+        }
+        return recorder.report(sent);
+    }
+
+    /**
+     * Runs a load against one of the {@link LoadTarget}s and prints the report. Arguments are {@code name=value}
+     * pairs, all optional:
+     * <pre>
+     * mode=open|fixed producers=2 rate=100000 seconds=10 warmup=2 target=OBSERVE_ON scheduler=COMPUTATION
+     * </pre>
+     */
+    public static void main(String[] args) {
+        String mode = "open";
+        int producers = 2;
+        long rate = 100000;
+        long seconds = 10;
+        long warmup = 2;
+        LoadTarget target = LoadTarget.OBSERVE_ON;
+        String scheduler = "COMPUTATION";
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value but got " + arg);
+            }
+            String name = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            if (name.equals("mode")) {
+                mode = value;
+            } else if (name.equals("producers")) {
+                producers = Integer.parseInt(value);
+            } else if (name.equals("rate")) {
+                rate = Long.parseLong(value);
+            } else if (name.equals("seconds")) {
+                seconds = Long.parseLong(value);
+            } else if (name.equals("warmup")) {
+                warmup = Long.parseLong(value);
+            } else if (name.equals("target")) {
+                target = LoadTarget.valueOf(value);
+            } else if (name.equals("scheduler")) {
+                scheduler = value;
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + name);
+            }
+        }
+        LoadProfile profile = mode.equals("fixed")
+                ? LoadProfile.fixedRate(producers, rate, seconds, TimeUnit.SECONDS)
+                : LoadProfile.openLoop(producers, rate, seconds, TimeUnit.SECONDS);
+        System.out.println(target + " on " + scheduler);
+        System.out.print(run(profile.withWarmup(warmup, TimeUnit.SECONDS), target.pipeline(scheduler)));
+    }
+
+    static void waitUntil(long deadline) {
+        for (; ; ) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static final class Producer implements Runnable {
+        private final int id;
+        private final LoadProfile.Mode mode;
+        private final Observer<? super LoadEvent> input;
+        private final Recorder recorder;
+        private final long first;
+        private final long interval;
+        private final long measureFrom;
+        private final long end;
+        /* read after the thread is joined */
+        long sent;
+
+        Producer(int id, LoadProfile.Mode mode, Observer<? super LoadEvent> input, Recorder recorder,
+                 long first, long interval, long measureFrom, long end) {
+            this.id = id;
+            this.mode = mode;
+            this.input = input;
+            this.recorder = recorder;
+            this.first = first;
+            this.interval = interval;
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            long slot = 0;
+            for (; ; ) {
+                long intended = first + slot * interval;
+                if (intended >= end || recorder.isUnsubscribed()) {
+                    return;
+                }
+                waitUntil(intended);
+                input.onNext(new LoadEvent(id, slot, intended, System.nanoTime()));
+                if (intended >= measureFrom) {
+                    sent++;
+                }
+                slot++;
+                if (mode == LoadProfile.Mode.FIXED_RATE) {
+                    long behind = System.nanoTime() - (first + slot * interval);
+                    if (behind > 0) {
+                        slot += behind / interval;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Recorder extends Subscriber<LoadEvent> {
+        private final LatencyHistogram corrected = new LatencyHistogram();
+        private final LatencyHistogram raw = new LatencyHistogram();
+        private final LoadProfile profile;
+        private final long measureFrom;
+        private final long interval;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        /* written by the serialized output, read after done */
+        private final long[] lastSequence;
+        private long received;
+        private long lastReceived;
+        private volatile Throwable error;
+
+        Recorder(LoadProfile profile, long measureFrom) {
+            this.profile = profile;
+            this.measureFrom = measureFrom;
+            this.interval = profile.getProducerIntervalNanos();
+            this.lastSequence = new long[profile.getProducers()];
+            Arrays.fill(lastSequence, -1);
+        }
+
+        @Override
+        public void onNext(LoadEvent event) {
+            long now = System.nanoTime();
+            // slots a fixed-rate producer skipped since its previous event, each one interval apart
+            long skipped = event.getSequence() - lastSequence[event.getProducer()] - 1;
+            lastSequence[event.getProducer()] = event.getSequence();
+            if (event.getIntendedNanos() < measureFrom) {
+                return;
+            }
+            received++;
+            lastReceived = now;
+            long fromSend = now - event.getSentNanos();
+            raw.record(fromSend);
+            if (profile.getMode() == LoadProfile.Mode.OPEN_LOOP) {
+                corrected.record(now - event.getIntendedNanos());
+            } else {
+                corrected.record(fromSend);
+                backfill(event, skipped, now);
+            }
+        }
+
+        /**
+         * Records the sends a fixed-rate producer skipped as if they had been held back and sent along with
+         * this event, from their scheduled time to this event's receipt.
+         */
+        private void backfill(LoadEvent event, long skipped, long now) {
+            for (long i = 1; i <= skipped; i++) {
+                long intended = event.getIntendedNanos() - i * interval;
+                if (intended < measureFrom) {
+                    return;
+                }
+                corrected.record(now - intended);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+            done.countDown();
+        }
+
+        @Override
+        public void onCompleted() {
+            done.countDown();
+        }
+
+        LoadReport report(long sent) {
+            long elapsed = received == 0 ? 0 : lastReceived - measureFrom;
+            return new LoadReport(profile, sent, received, elapsed, corrected.snapshot(), raw.snapshot());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.iluu.rx.examples.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a {@link LoadHarness} drives its target: number of producer threads, total rate, duration and whether
+ * latency is measured open-loop or fixed-rate.
+ * <p/>
+ * Each producer sends on its own schedule of {@code producers / rate} seconds between events. What happens when
+ * the target blocks a producer past its next slots depends on the mode:
+ * <ul>
+ * <li>{@link #openLoop open-loop}: the late events are sent back to back and their latency runs from the
+ * scheduled send time, as users arriving independently of the system would see it;</li>
+ * <li>{@link #fixedRate fixed-rate}: the missed slots are skipped and latency runs from the actual send, as a
+ * closed-loop client measures it; the {@link LoadReport#getCorrected() corrected} figures back-fill the
+ * slots the producer actually skipped, each timed from its scheduled send to the receipt of the next event
+ * sent. A consumer falling behind across an asynchronous hop doesn't hold the producer back, so it adds no
+ * back-filled values.</li>
+ * </ul>
+ * The raw figures, from the actual send without correction, are reported either way.
+ */
+public final class LoadProfile {
+
+    public enum Mode {
+        OPEN_LOOP, FIXED_RATE
+    }
+
+    private final Mode mode;
+    private final int producers;
+    private final long ratePerSecond;
+    private final long durationNanos;
+    private final long warmupNanos;
+
+    private LoadProfile(Mode mode, int producers, long ratePerSecond, long durationNanos, long warmupNanos) {
+        if (producers < 1) {
+            throw new IllegalArgumentException("At least one producer is needed");
+        }
+        if (ratePerSecond < producers || ratePerSecond > 1000000000L) {
+            throw new IllegalArgumentException("Rate must be between the number of producers and 10^9 per second");
+        }
+        if (durationNanos <= 0 || warmupNanos < 0) {
+            throw new IllegalArgumentException("Duration must be positive and warmup not negative");
+        }
+        this.mode = mode;
+        this.producers = producers;
+        this.ratePerSecond = ratePerSecond;
+        this.durationNanos = durationNanos;
+        this.warmupNanos = warmupNanos;
+    }
+
+    public static LoadProfile openLoop(int producers, long ratePerSecond, long duration, TimeUnit unit) {
+        return new LoadProfile(Mode.OPEN_LOOP, producers, ratePerSecond, unit.toNanos(duration), 0);
+    }
+
+    public static LoadProfile fixedRate(int producers, long ratePerSecond, long duration, TimeUnit unit) {
+        return new LoadProfile(Mode.FIXED_RATE, producers, ratePerSecond, unit.toNanos(duration), 0);
+    }
+
+    /**
+     * Same profile, preceded by a warmup at the same rate whose events are sent but not recorded.
+     */
+    public LoadProfile withWarmup(long warmup, TimeUnit unit) {
+        return new LoadProfile(mode, producers, ratePerSecond, durationNanos, unit.toNanos(warmup));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getProducers() {
+        return producers;
+    }
+
+    public long getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getWarmupNanos() {
+        return warmupNanos;
+    }
+
+    /**
+     * Time between two events of the same producer.
+     */
+    public long getProducerIntervalNanos() {
+        return TimeUnit.SECONDS.toNanos(producers) / ratePerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return (mode == Mode.OPEN_LOOP ? "open-loop" : "fixed-rate") + ", " + producers + " producers, "
+                + ratePerSecond + "/s for " + TimeUnit.NANOSECONDS.toMillis(durationNanos) + " ms";
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.iluu.rx.examples.load;
+
+import io.github.iluu.rx.examples.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link LoadHarness} run. Latencies are in nanoseconds, counts and throughput cover the measured
+ * period only, warmup excluded.
+ */
+public final class LoadReport {
+    private final LoadProfile profile;
+    private final long sent;
+    private final long received;
+    private final long elapsedNanos;
+    private final LatencyHistogram.Snapshot corrected;
+    private final LatencyHistogram.Snapshot raw;
+
+    LoadReport(LoadProfile profile, long sent, long received, long elapsedNanos,
+               LatencyHistogram.Snapshot corrected, LatencyHistogram.Snapshot raw) {
+        this.profile = profile;
+        this.sent = sent;
+        this.received = received;
+        this.elapsedNanos = elapsedNanos;
+        this.corrected = corrected;
+        this.raw = raw;
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * From the start of the measured period to the last event received.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Events received per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : received * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Latencies corrected for coordinated omission, see {@link LoadProfile}.
+     */
+    public LatencyHistogram.Snapshot getCorrected() {
+        return corrected;
+    }
+
+    /**
+     * Latencies from the actual send, the way a naive benchmark measures them.
+     */
+    public LatencyHistogram.Snapshot getRaw() {
+        return raw;
+    }
+
+    public long p50() {
+        return corrected.valueAtPercentile(50);
+    }
+
+    public long p99() {
+        return corrected.valueAtPercentile(99);
+    }
+
+    public long p999() {
+        return corrected.valueAtPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(profile).append('\n');
+        out.append(String.format("sent %d, received %d, throughput %.0f/s%n", sent, received, getThroughput()));
+        out.append(String.format("%-12s %10s %10s %10s %10s%n", "latency (us)", "p50", "p99", "p99.9", "max"));
+        appendRow(out, "corrected", corrected);
+        appendRow(out, "raw", raw);
+        return out.toString();
+    }
+
+    private static void appendRow(StringBuilder out, String name, LatencyHistogram.Snapshot snapshot) {
+        out.append(String.format("%-12s %10d %10d %10d %10d%n", name,
+                micros(snapshot.valueAtPercentile(50)), micros(snapshot.valueAtPercentile(99)),
+                micros(snapshot.valueAtPercentile(99.9)), micros(snapshot.max())));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
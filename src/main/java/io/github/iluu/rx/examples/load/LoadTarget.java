@@ -0,0 +1,62 @@
+package io.github.iluu.rx.examples.load;
+
+import io.github.iluu.rx.examples.SchedulerType;
+import io.github.iluu.rx.examples.notifications.OperatorRingObserveOn;
+import io.github.iluu.rx.examples.operators.OperatorBatchedObserveOn;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelines {@link LoadHarness#main(String[])} can put under load. The producers send into a hot subject, which
+ * ignores backpressure, so the thread hand-offs are preceded by {@code onBackpressureBuffer}: a consumer falling
+ * behind shows up as latency rather than as a {@code MissingBackpressureException}.
+ */
+public enum LoadTarget {
+
+    /**
+     * Received on the producer thread, the cost of the harness and the serialized subject alone.
+     */
+    DIRECT {
+        @Override
+        Observable<LoadEvent> apply(Observable<LoadEvent> events, Scheduler scheduler) {
+            return events;
+        }
+    },
+    OBSERVE_ON {
+        @Override
+        Observable<LoadEvent> apply(Observable<LoadEvent> events, Scheduler scheduler) {
+            return events.onBackpressureBuffer().observeOn(scheduler);
+        }
+    },
+    BATCHED_OBSERVE_ON {
+        @Override
+        Observable<LoadEvent> apply(Observable<LoadEvent> events, Scheduler scheduler) {
+            return events.onBackpressureBuffer()
+                    .lift(new OperatorBatchedObserveOn<LoadEvent>(scheduler, 64, 1, TimeUnit.MILLISECONDS));
+        }
+    },
+    RING_OBSERVE_ON {
+        @Override
+        Observable<LoadEvent> apply(Observable<LoadEvent> events, Scheduler scheduler) {
+            return events.onBackpressureBuffer().lift(new OperatorRingObserveOn<LoadEvent>(scheduler, 1024));
+        }
+    };
+
+    abstract Observable<LoadEvent> apply(Observable<LoadEvent> events, Scheduler scheduler);
+
+    /**
+     * @param scheduler name of a {@link SchedulerType}
+     */
+    public Func1<Observable<LoadEvent>, Observable<LoadEvent>> pipeline(String scheduler) {
+        final Scheduler resolved = SchedulerType.valueOf(scheduler).scheduler();
+        return new Func1<Observable<LoadEvent>, Observable<LoadEvent>>() {
+            @Override
+            public Observable<LoadEvent> call(Observable<LoadEvent> events) {
+                return apply(events, resolved);
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.iluu.rx.examples.logging;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous trace log. Callers record (thread id, tag, value, nano time) into a preallocated
+ * multi-producer ring buffer without allocating or locking; a background thread formats the records
+ * and writes them out in batches.
+ * <p/>
+ * When the ring is full the {@link OverflowPolicy} decides whether the record is dropped (and counted,
+ * see {@link #dropped()}) or the caller waits for room.
+ */
+public class TraceSink {
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private static final long IDLE_PARK_NANOS = 1000000;
+    private static final long FULL_PARK_NANOS = 1000;
+
+    private final int mask;
+    private final OverflowPolicy policy;
+    private final PrintStream out;
+
+    private final long[] threadIds;
+    private final String[] tags;
+    private final int[] values;
+    private final long[] nanos;
+    /* slot holds sequence + 1 once its record is written */
+    private final AtomicLongArray published;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private volatile long written;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private TraceSink(int capacity, OverflowPolicy policy, PrintStream out) {
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.policy = policy;
+        this.out = out;
+        this.threadIds = new long[size];
+        this.tags = new String[size];
+        this.values = new int[size];
+        this.nanos = new long[size];
+        this.published = new AtomicLongArray(size);
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "TraceSink-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Creates a sink with room for at least {@code capacity} records and starts its writer thread.
+     */
+    public static TraceSink start(int capacity, OverflowPolicy policy, PrintStream out) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        TraceSink sink = new TraceSink(capacity, policy, out);
+        sink.writer.start();
+        return sink;
+    }
+
+    public void record(String tag, int value) {
+        long time = System.nanoTime();
+        long seq;
+        for (; ; ) {
+            seq = tail.get();
+            if (seq - head.get() > mask) {
+                if (policy == OverflowPolicy.DROP) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            } else if (tail.compareAndSet(seq, seq + 1)) {
+                break;
+            }
+        }
+        int index = (int) seq & mask;
+        threadIds[index] = Thread.currentThread().getId();
+        tags[index] = tag;
+        values[index] = value;
+        nanos[index] = time;
+        published.lazySet(index, seq + 1);
+    }
+
+    /**
+     * Number of records lost to a full ring so far.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until everything recorded before this call is written out.
+     */
+    public void flush() {
+        long target = tail.get();
+        while (written < target && running) {
+            LockSupport.unpark(writer);
+            Thread.yield();
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes out what's left and stops the writer thread.
+     */
+    public void close() throws InterruptedException {
+        flush();
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    private void writeLoop() {
+        StringBuilder batch = new StringBuilder(4096);
+        while (running) {
+            long seq = head.get();
+            long limit = seq + mask + 1;
+            while (seq < limit && published.get((int) seq & mask) == seq + 1) {
+                int index = (int) seq & mask;
+                batch.append(nanos[index]).append(" thread-").append(threadIds[index])
+                        .append(' ').append(tags[index]).append(' ').append(values[index]).append('\n');
+                tags[index] = null;
+                seq++;
+            }
+            if (batch.length() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            head.set(seq);
+            out.print(batch);
+            batch.setLength(0);
+            written = seq;
+        }
+    }
+}
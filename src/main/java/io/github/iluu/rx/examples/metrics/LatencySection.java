@@ -0,0 +1,136 @@
+package io.github.iluu.rx.examples.metrics;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subscriptions.Subscriptions;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pair of pass-through operators timing every {@code sampleEvery}-th value from the moment {@link #begin()} emits
+ * it until {@link #end()} receives it, whatever threads the operators in between move it to.
+ * <pre>
+ * LatencySection section = registry.section("observeOn", 64);
+ * source.lift(section.&lt;Integer&gt;begin()).observeOn(scheduler).lift(section.&lt;Integer&gt;end());
+ * </pre>
+ * The operators in between must pass every value on once and in order ({@code map}, {@code doOnNext},
+ * {@code observeOn}), as the n-th value received by the end is matched with the n-th one emitted by the begin.
+ * The two are paired when subscribed to, the end handing its subscription's queue of timestamps to the begin
+ * subscribed next on the same thread; with a {@code subscribeOn} in between nothing is recorded. Each timestamp
+ * carries the position of its value, so when the operators in between fall behind by more than
+ * {@link #MAX_IN_FLIGHT} sampled values, the values whose timestamps found no room go unrecorded rather than
+ * being timed against the timestamp of a later value.
+ */
+public class LatencySection {
+
+    /**
+     * Sampled values in flight between begin and end beyond which their timestamps are dropped.
+     */
+    private static final int MAX_IN_FLIGHT = 1024;
+
+    private final OperatorMetrics metrics;
+    private final int sampleMask;
+    private final ThreadLocal<Queue<Stamp>> pending = new ThreadLocal<Queue<Stamp>>();
+
+    /**
+     * @param sampleEvery power of two
+     */
+    public LatencySection(OperatorMetrics metrics, int sampleEvery) {
+        if (sampleEvery < 1 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("Sampling interval must be a power of two");
+        }
+        this.metrics = metrics;
+        this.sampleMask = sampleEvery - 1;
+    }
+
+    public <T> Observable.Operator<T, T> begin() {
+        return new Observable.Operator<T, T>() {
+            @Override
+            public Subscriber<? super T> call(final Subscriber<? super T> child) {
+                final Queue<Stamp> stamps = pending.get();
+                if (stamps == null) {
+                    return child;
+                }
+                pending.remove();
+                return new Subscriber<T>(child) {
+                    private long seen;
+
+                    @Override
+                    public void onNext(T value) {
+                        long sequence = seen++;
+                        if ((sequence & sampleMask) == 0) {
+                            stamps.offer(new Stamp(sequence, System.nanoTime()));
+                        }
+                        child.onNext(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        child.onError(e);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        child.onCompleted();
+                    }
+                };
+            }
+        };
+    }
+
+    public <T> Observable.Operator<T, T> end() {
+        return new Observable.Operator<T, T>() {
+            @Override
+            public Subscriber<? super T> call(final Subscriber<? super T> child) {
+                final Queue<Stamp> stamps = new ArrayBlockingQueue<Stamp>(MAX_IN_FLIGHT);
+                pending.set(stamps);
+                Subscriber<T> parent = new Subscriber<T>(child) {
+                    private long seen;
+
+                    @Override
+                    public void onNext(T value) {
+                        long sequence = seen++;
+                        if ((sequence & sampleMask) == 0) {
+                            Stamp emitted = stamps.peek();
+                            // otherwise the queue was full when this value was emitted
+                            if (emitted != null && emitted.sequence == sequence) {
+                                stamps.poll();
+                                metrics.latency.record(System.nanoTime() - emitted.nanos);
+                            }
+                        }
+                        child.onNext(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        child.onError(e);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        child.onCompleted();
+                    }
+                };
+                parent.add(Subscriptions.create(new Action0() {
+                    @Override
+                    public void call() {
+                        stamps.clear();
+                    }
+                }));
+                return parent;
+            }
+        };
+    }
+
+    private static final class Stamp {
+        final long sequence;
+        final long nanos;
+
+        Stamp(long sequence, long nanos) {
+            this.sequence = sequence;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.iluu.rx.examples.metrics;
+
+import rx.Observable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Named {@link OperatorMetrics}, pulled with {@link #snapshot()} or read over JMX.
+ * <pre>
+ * MetricsRegistry registry = MetricsRegistry.withJmx("samples");
+ * LatencySection observeOn = registry.section("observeOn", 64);
+ * Observable.range(1, 10).lift(registry.&lt;Integer&gt;instrument("range"))
+ *         .map(multiply).lift(registry.&lt;Integer&gt;instrument("map"))
+ *         .lift(observeOn.&lt;Integer&gt;begin()).observeOn(scheduler).lift(observeOn.&lt;Integer&gt;end());
+ * </pre>
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, OperatorMetrics> metrics = new ConcurrentHashMap<String, OperatorMetrics>();
+    private final String jmxDomain;
+
+    private MetricsRegistry(String jmxDomain) {
+        this.jmxDomain = jmxDomain;
+    }
+
+    public static MetricsRegistry create() {
+        return new MetricsRegistry(null);
+    }
+
+    /**
+     * Also registers every metrics as an MXBean named {@code <domain>:type=OperatorMetrics,name=<name>}.
+     */
+    public static MetricsRegistry withJmx(String domain) {
+        return new MetricsRegistry(domain);
+    }
+
+    /**
+     * Metrics with the given name, created on first use.
+     */
+    public OperatorMetrics metrics(String name) {
+        OperatorMetrics existing = metrics.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        OperatorMetrics created = new OperatorMetrics(name);
+        existing = metrics.putIfAbsent(name, created);
+        if (existing != null) {
+            return existing;
+        }
+        if (jmxDomain != null) {
+            register(created);
+        }
+        return created;
+    }
+
+    /**
+     * Operator counting into the metrics with the given name, see {@link OperatorInstrument}.
+     */
+    public <T> Observable.Operator<T, T> instrument(String name) {
+        return new OperatorInstrument<T>(metrics(name));
+    }
+
+    /**
+     * Section recording latency into the metrics with the given name, see {@link LatencySection}.
+     */
+    public LatencySection section(String name, int sampleEvery) {
+        return new LatencySection(metrics(name), sampleEvery);
+    }
+
+    /**
+     * Current values of all metrics.
+     */
+    public List<OperatorMetrics.Snapshot> snapshot() {
+        List<OperatorMetrics.Snapshot> snapshots = new ArrayList<OperatorMetrics.Snapshot>();
+        for (OperatorMetrics operatorMetrics : metrics.values()) {
+            snapshots.add(operatorMetrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Unregisters all MXBeans of this registry.
+     */
+    public void close() {
+        if (jmxDomain == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperatorMetrics registered : metrics.values()) {
+            try {
+                server.unregisterMBean(objectName(registered));
+            } catch (JMException e) {
+                // already gone
+            }
+        }
+    }
+
+    private void register(OperatorMetrics created) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(created, objectName(created));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics " + created.getName(), e);
+        }
+    }
+
+    private ObjectName objectName(OperatorMetrics operatorMetrics) throws JMException {
+        return new ObjectName(jmxDomain + ":type=OperatorMetrics,name=" + ObjectName.quote(operatorMetrics.getName()));
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.iluu.rx.examples.metrics;
+
+import rx.Observable;
+import rx.Subscriber;
+
+/**
+ * Pass-through operator counting the notifications that go past it. Lift it right after the operator to measure;
+ * latency between two points of a chain is measured by a {@link LatencySection}.
+ * <p/>
+ * Each subscription counts values in a plain field and adds them to the shared counter every
+ * {@value #FLUSH_EVERY} values and on the terminal event, so a running (or unsubscribed) stream may be
+ * behind by fewer than that many in the metrics.
+ */
+public class OperatorInstrument<T> implements Observable.Operator<T, T> {
+
+    static final int FLUSH_EVERY = 64;
+
+    private final OperatorMetrics metrics;
+
+    public OperatorInstrument(OperatorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Subscriber<? super T> call(final Subscriber<? super T> child) {
+        return new Subscriber<T>(child) {
+            /* onNext calls are serialized, a plain field is enough */
+            private long seen;
+
+            @Override
+            public void onNext(T value) {
+                if ((++seen & (FLUSH_EVERY - 1)) == 0) {
+                    metrics.onNext.add(FLUSH_EVERY);
+                }
+                child.onNext(value);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                metrics.onNext.add(seen & (FLUSH_EVERY - 1));
+                metrics.errors.increment();
+                child.onError(e);
+            }
+
+            @Override
+            public void onCompleted() {
+                metrics.onNext.add(seen & (FLUSH_EVERY - 1));
+                metrics.completions.increment();
+                child.onCompleted();
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.iluu.rx.examples.metrics;
+
+/**
+ * Counters of one instrumented point in a chain, or latency histogram of one section of it, shared by all its
+ * subscriptions.
+ */
+public class OperatorMetrics implements OperatorMetricsMXBean {
+
+    private final String name;
+    final StripedCounter onNext = new StripedCounter();
+    final StripedCounter errors = new StripedCounter();
+    final StripedCounter completions = new StripedCounter();
+    final LatencyHistogram latency = new LatencyHistogram();
+
+    OperatorMetrics(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getOnNextCount() {
+        return onNext.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completions.sum();
+    }
+
+    @Override
+    public long getLatencySamples() {
+        return latency.snapshot().count();
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latency.snapshot().valueAtPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latency.snapshot().valueAtPercentile(99);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return latency.snapshot().max();
+    }
+
+    /**
+     * Point-in-time copy of the counters and latency histogram.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(name, onNext.sum(), errors.sum(), completions.sum(), latency.snapshot());
+    }
+
+    public static final class Snapshot {
+        private final String name;
+        private final long onNext;
+        private final long errors;
+        private final long completed;
+        private final LatencyHistogram.Snapshot latency;
+
+        Snapshot(String name, long onNext, long errors, long completed, LatencyHistogram.Snapshot latency) {
+            this.name = name;
+            this.onNext = onNext;
+            this.errors = errors;
+            this.completed = completed;
+            this.latency = latency;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long onNext() {
+            return onNext;
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public long completed() {
+            return completed;
+        }
+
+        /**
+         * Sampled times from a value leaving the begin of a {@link LatencySection} until it reaches its end.
+         */
+        public LatencyHistogram.Snapshot latency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": onNext=" + onNext + " errors=" + errors + " completed=" + completed
+                    + " latency p50=" + latency.valueAtPercentile(50) + "ns p99=" + latency.valueAtPercentile(99)
+                    + "ns max=" + latency.max() + "ns (" + latency.count() + " samples)";
+        }
+    }
+}
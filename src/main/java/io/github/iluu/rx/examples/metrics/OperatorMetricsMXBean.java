@@ -0,0 +1,23 @@
+package io.github.iluu.rx.examples.metrics;
+
+/**
+ * JMX view of {@link OperatorMetrics}, registered by {@link MetricsRegistry}.
+ */
+public interface OperatorMetricsMXBean {
+
+    String getName();
+
+    long getOnNextCount();
+
+    long getErrorCount();
+
+    long getCompletedCount();
+
+    long getLatencySamples();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyMaxNanos();
+}
@@ -0,0 +1,89 @@
+package io.github.iluu.rx.examples.notifications;
+
+import rx.Observable;
+import rx.Subscriber;
+
+/**
+ * {@code materialize} and {@code dematerialize} for synchronous single-consumer pipelines, to be used with
+ * {@code lift}. Rather than allocating a {@code Notification} per event, every event of a subscription is
+ * written into one {@link MutableNotification}, which the next operator must consume before returning.
+ * <pre>
+ * source.lift(FlyweightMaterialize.&lt;Integer&gt;materialize())
+ *       .filter(...)
+ *       .lift(FlyweightMaterialize.&lt;Integer&gt;dematerialize())
+ * </pre>
+ * Operators that keep or hand off their input (buffers, {@code observeOn}, {@code toList}) would see the
+ * last event only; for those use {@link NotificationRing} or {@link MutableNotification#toNotification()}.
+ */
+public final class FlyweightMaterialize {
+
+    private FlyweightMaterialize() {
+    }
+
+    public static <T> Observable.Operator<MutableNotification<T>, T> materialize() {
+        return new Observable.Operator<MutableNotification<T>, T>() {
+            @Override
+            public Subscriber<? super T> call(final Subscriber<? super MutableNotification<T>> child) {
+                return new Subscriber<T>(child) {
+                    private final MutableNotification<T> flyweight = new MutableNotification<T>();
+
+                    @Override
+                    public void onNext(T value) {
+                        flyweight.setOnNext(value);
+                        child.onNext(flyweight);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        flyweight.setOnError(e);
+                        child.onNext(flyweight);
+                        child.onCompleted();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        flyweight.setOnCompleted();
+                        child.onNext(flyweight);
+                        child.onCompleted();
+                    }
+                };
+            }
+        };
+    }
+
+    public static <T> Observable.Operator<T, MutableNotification<T>> dematerialize() {
+        return new Observable.Operator<T, MutableNotification<T>>() {
+            @Override
+            public Subscriber<? super MutableNotification<T>> call(final Subscriber<? super T> child) {
+                return new Subscriber<MutableNotification<T>>(child) {
+                    private boolean terminated;
+
+                    @Override
+                    public void onNext(MutableNotification<T> notification) {
+                        if (terminated) {
+                            return;
+                        }
+                        terminated = !notification.isOnNext();
+                        notification.accept(child);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        if (!terminated) {
+                            terminated = true;
+                            child.onError(e);
+                        }
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        if (!terminated) {
+                            terminated = true;
+                            child.onCompleted();
+                        }
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.iluu.rx.examples.notifications;
+
+import rx.Notification;
+import rx.Observer;
+
+/**
+ * Reusable counterpart of {@link Notification}, with the same accessors. {@link FlyweightMaterialize} refills
+ * a single instance for every event of a subscription, so it is only valid until {@code onNext} returns; use
+ * {@link #toNotification()} to keep one.
+ */
+public final class MutableNotification<T> {
+    private Notification.Kind kind;
+    private T value;
+    private Throwable throwable;
+
+    void setOnNext(T value) {
+        this.kind = Notification.Kind.OnNext;
+        this.value = value;
+        this.throwable = null;
+    }
+
+    void setOnError(Throwable throwable) {
+        this.kind = Notification.Kind.OnError;
+        this.value = null;
+        this.throwable = throwable;
+    }
+
+    void setOnCompleted() {
+        this.kind = Notification.Kind.OnCompleted;
+        this.value = null;
+        this.throwable = null;
+    }
+
+    public Notification.Kind getKind() {
+        return kind;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    public boolean isOnNext() {
+        return kind == Notification.Kind.OnNext;
+    }
+
+    public boolean isOnError() {
+        return kind == Notification.Kind.OnError;
+    }
+
+    public boolean isOnCompleted() {
+        return kind == Notification.Kind.OnCompleted;
+    }
+
+    public void accept(Observer<? super T> observer) {
+        switch (kind) {
+            case OnNext:
+                observer.onNext(value);
+                break;
+            case OnError:
+                observer.onError(throwable);
+                break;
+            default:
+                observer.onCompleted();
+        }
+    }
+
+    /**
+     * Immutable copy, for keeping the event past the current callback.
+     */
+    public Notification<T> toNotification() {
+        switch (kind) {
+            case OnNext:
+                return Notification.createOnNext(value);
+            case OnError:
+                return Notification.createOnError(throwable);
+            default:
+                return Notification.createOnCompleted();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MutableNotification[" + kind + (isOnNext() ? " " + value : isOnError() ? " " + throwable : "") + "]";
+    }
+}
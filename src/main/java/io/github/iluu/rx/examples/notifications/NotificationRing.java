@@ -0,0 +1,132 @@
+package io.github.iluu.rx.examples.notifications;
+
+import rx.Observer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer single-consumer queue of materialized events, for handing a sequence from one thread
+ * to another without a {@code Notification} per event.
+ * <p/>
+ * Events are kept as a structure of arrays allocated once: a {@code byte[]} of kinds and an {@code Object[]}
+ * holding the value, or the throwable of an error. The producer calls {@link #offerNext}, {@link #offerError}
+ * and {@link #offerCompleted}; the consumer {@link #drain}s into an observer. One slot is kept for the
+ * terminal event, so a producer that overflows can still report it.
+ */
+public final class NotificationRing<T> {
+    private static final byte NEXT = 0;
+    private static final byte ERROR = 1;
+    private static final byte COMPLETED = 2;
+
+    private final byte[] kinds;
+    private final Object[] values;
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+    /* producer side: consumer index as last read, so a free slot doesn't cost a volatile read */
+    private long consumerIndexCache;
+    /* consumer side */
+    private boolean done;
+
+    /**
+     * @param capacity rounded up to a power of two, at least 2
+     */
+    public NotificationRing(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.kinds = new byte[size];
+        this.values = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Values that fit before the ring is full, one slot being kept for the terminal event.
+     */
+    public int valueCapacity() {
+        return values.length - 1;
+    }
+
+    /**
+     * @return false if there is no room, the value is then dropped
+     */
+    public boolean offerNext(T value) {
+        return offer(NEXT, value, valueCapacity());
+    }
+
+    public void offerError(Throwable e) {
+        offerTerminal(ERROR, e);
+    }
+
+    public void offerCompleted() {
+        offerTerminal(COMPLETED, null);
+    }
+
+    private void offerTerminal(byte kind, Object value) {
+        if (!offer(kind, value, values.length)) {
+            throw new IllegalStateException("Only one terminal event can be offered");
+        }
+    }
+
+    private boolean offer(byte kind, Object value, int limit) {
+        long index = producerIndex.get();
+        if (index - consumerIndexCache >= limit) {
+            consumerIndexCache = consumerIndex.get();
+            if (index - consumerIndexCache >= limit) {
+                return false;
+            }
+        }
+        int offset = (int) index & mask;
+        kinds[offset] = kind;
+        values[offset] = value;
+        producerIndex.lazySet(index + 1);
+        return true;
+    }
+
+    /**
+     * Passes at most {@code maxValues} values to the observer, then the terminal event if it comes next.
+     *
+     * @return number of values passed
+     */
+    @SuppressWarnings("unchecked")
+    public long drain(Observer<? super T> observer, long maxValues) {
+        long index = consumerIndex.get();
+        long available = producerIndex.get();
+        long emitted = 0;
+        while (index != available && !done) {
+            int offset = (int) index & mask;
+            byte kind = kinds[offset];
+            if (kind == NEXT && emitted == maxValues) {
+                break;
+            }
+            Object value = values[offset];
+            values[offset] = null;
+            consumerIndex.lazySet(++index);
+            if (kind == NEXT) {
+                emitted++;
+                observer.onNext((T) value);
+            } else {
+                done = true;
+                if (kind == ERROR) {
+                    observer.onError((Throwable) value);
+                } else {
+                    observer.onCompleted();
+                }
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Whether the consumer has drained the terminal event.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean isEmpty() {
+        return consumerIndex.get() == producerIndex.get();
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.iluu.rx.examples.notifications;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Action0;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code observeOn} that hands events to the worker through a {@link NotificationRing}, the allocation-free
+ * replacement of {@code materialize().observeOn(scheduler).dematerialize()}.
+ * <p/>
+ * Upstream is asked for as many values as the ring holds and replenished as the worker delivers them, and the
+ * child receives only what it requests. A source ignoring backpressure fails with
+ * {@link MissingBackpressureException} once the ring is full.
+ */
+public class OperatorRingObserveOn<T> implements Observable.Operator<T, T> {
+
+    private final Scheduler scheduler;
+    private final int capacity;
+
+    public OperatorRingObserveOn(Scheduler scheduler, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.scheduler = scheduler;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super T> child) {
+        Scheduler.Worker worker = scheduler.createWorker();
+        child.add(worker);
+        final RingSubscriber<T> parent = new RingSubscriber<T>(child, worker, new NotificationRing<T>(capacity));
+        child.add(parent);
+        child.setProducer(new Producer() {
+            @Override
+            public void request(long n) {
+                parent.requestFromChild(n);
+            }
+        });
+        return parent;
+    }
+
+    private static final class RingSubscriber<T> extends Subscriber<T> {
+        private final Subscriber<? super T> child;
+        private final Scheduler.Worker worker;
+        private final NotificationRing<T> ring;
+
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        /* producer side */
+        private boolean terminated;
+
+        private final Action0 drain = new Action0() {
+            @Override
+            public void call() {
+                drain();
+            }
+        };
+
+        RingSubscriber(Subscriber<? super T> child, Scheduler.Worker worker, NotificationRing<T> ring) {
+            this.child = child;
+            this.worker = worker;
+            this.ring = ring;
+        }
+
+        @Override
+        public void onStart() {
+            request(ring.valueCapacity());
+        }
+
+        void requestFromChild(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void onNext(T value) {
+            if (terminated) {
+                return;
+            }
+            if (!ring.offerNext(value)) {
+                unsubscribe();
+                onError(new MissingBackpressureException());
+                return;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            ring.offerError(e);
+            schedule();
+        }
+
+        @Override
+        public void onCompleted() {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            ring.offerCompleted();
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            for (; ; ) {
+                if (child.isUnsubscribed()) {
+                    return;
+                }
+                long r = requested.get();
+                long emitted = ring.drain(child, r);
+                if (ring.isDone()) {
+                    return;
+                }
+                if (emitted != 0) {
+                    if (r != Long.MAX_VALUE) {
+                        requested.addAndGet(-emitted);
+                    }
+                    request(emitted);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.github.iluu.rx.examples.operators;
+
+import io.github.iluu.rx.examples.primitive.LongAccumulator;
+import rx.Observable;
+import rx.Subscriber;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Fused terminal aggregates, to be used with {@code lift}. Each keeps its state in a primitive field and emits
+ * a single value on completion, where {@code map(toOne).scan(sum).last()} allocates and emits per element.
+ * <pre>
+ * events.lift(Aggregates.&lt;String&gt;count())
+ * </pre>
+ * min and max fail with {@link NoSuchElementException} on an empty sequence, count and sums emit 0.
+ */
+public final class Aggregates {
+
+    private Aggregates() {
+    }
+
+    public static <T> Observable.Operator<Long, T> count() {
+        return new Observable.Operator<Long, T>() {
+            @Override
+            public Subscriber<? super T> call(final Subscriber<? super Long> child) {
+                return new AggregateSubscriber<T, Long>(child) {
+                    private long count;
+
+                    @Override
+                    public void onNext(T value) {
+                        count++;
+                    }
+
+                    @Override
+                    Long result() {
+                        return count;
+                    }
+                };
+            }
+        };
+    }
+
+    public static Observable.Operator<Long, Integer> sumOfInts() {
+        return new Observable.Operator<Long, Integer>() {
+            @Override
+            public Subscriber<? super Integer> call(final Subscriber<? super Long> child) {
+                return new AggregateSubscriber<Integer, Long>(child) {
+                    private long sum;
+
+                    @Override
+                    public void onNext(Integer value) {
+                        sum += value;
+                    }
+
+                    @Override
+                    Long result() {
+                        return sum;
+                    }
+                };
+            }
+        };
+    }
+
+    public static Observable.Operator<Long, Long> sumOfLongs() {
+        return new Observable.Operator<Long, Long>() {
+            @Override
+            public Subscriber<? super Long> call(final Subscriber<? super Long> child) {
+                return new AggregateSubscriber<Long, Long>(child) {
+                    private long sum;
+
+                    @Override
+                    public void onNext(Long value) {
+                        sum += value;
+                    }
+
+                    @Override
+                    Long result() {
+                        return sum;
+                    }
+                };
+            }
+        };
+    }
+
+    public static Observable.Operator<Integer, Integer> minOfInts() {
+        return extremeOfInts(false);
+    }
+
+    public static Observable.Operator<Integer, Integer> maxOfInts() {
+        return extremeOfInts(true);
+    }
+
+    private static Observable.Operator<Integer, Integer> extremeOfInts(final boolean max) {
+        return new Observable.Operator<Integer, Integer>() {
+            @Override
+            public Subscriber<? super Integer> call(final Subscriber<? super Integer> child) {
+                return new AggregateSubscriber<Integer, Integer>(child) {
+                    private boolean any;
+                    private int extreme;
+
+                    @Override
+                    public void onNext(Integer value) {
+                        int v = value;
+                        if (!any) {
+                            any = true;
+                            extreme = v;
+                        } else if (max ? v > extreme : v < extreme) {
+                            extreme = v;
+                        }
+                    }
+
+                    @Override
+                    Integer result() {
+                        if (!any) {
+                            throw new NoSuchElementException("Sequence contains no elements");
+                        }
+                        return extreme;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Folds every value into a primitive long, starting from {@code initial}.
+     */
+    public static <T> Observable.Operator<Long, T> reduceToLong(final long initial,
+                                                               final LongAccumulator<? super T> accumulator) {
+        return new Observable.Operator<Long, T>() {
+            @Override
+            public Subscriber<? super T> call(final Subscriber<? super Long> child) {
+                return new AggregateSubscriber<T, Long>(child) {
+                    private long state = initial;
+
+                    @Override
+                    public void onNext(T value) {
+                        if (done) {
+                            return;
+                        }
+                        try {
+                            state = accumulator.call(state, value);
+                        } catch (Throwable e) {
+                            fail(e);
+                        }
+                    }
+
+                    @Override
+                    Long result() {
+                        return state;
+                    }
+                };
+            }
+        };
+    }
+
+    private abstract static class AggregateSubscriber<T, R> extends Subscriber<T> {
+        private final Subscriber<? super R> child;
+        boolean done;
+
+        AggregateSubscriber(Subscriber<? super R> child) {
+            super(child);
+            this.child = child;
+        }
+
+        @Override
+        public void onStart() {
+            request(Long.MAX_VALUE);
+        }
+
+        abstract R result();
+
+        /**
+         * Passes on an exception thrown by a callback and stops the upstream.
+         */
+        void fail(Throwable e) {
+            onError(e);
+            unsubscribe();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                return;
+            }
+            done = true;
+            child.onError(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            if (done) {
+                return;
+            }
+            done = true;
+            R result;
+            try {
+                result = result();
+            } catch (Throwable e) {
+                child.onError(e);
+                return;
+            }
+            child.onNext(result);
+            child.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.iluu.rx.examples.operators;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a function building an Observable per key, such as a lookup by id in {@code mergeMap}, so each key's
+ * Observable is subscribed to once and its events are replayed to every later subscriber for the key.
+ * <pre>
+ * MemoizingFunc1&lt;Integer, User&gt; users = MemoizingFunc1.create(lookupUser, 1000, 1, TimeUnit.MINUTES,
+ *         Schedulers.immediate());
+ * ids.mergeMap(users);
+ * </pre>
+ * The key is looked up when the returned Observable is subscribed to, so subscribers arriving while the first
+ * one is still running share its result. At most {@code maxSize} keys are kept, the least recently used being
+ * evicted first; with a time to live, an entry older than that is fetched again. A fetch that fails is passed
+ * on to its subscribers and forgotten, so the next subscriber retries.
+ * <p/>
+ * A fetch keeps running until it terminates, even if all of its subscribers unsubscribe.
+ */
+public final class MemoizingFunc1<K, V> implements Func1<K, Observable<V>> {
+
+    private final Func1<? super K, ? extends Observable<? extends V>> fetch;
+    private final long ttlMillis;
+    private final Scheduler clock;
+    /* guarded by itself, in access order */
+    private final LinkedHashMap<K, Cached> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private MemoizingFunc1(Func1<? super K, ? extends Observable<? extends V>> fetch, final int maxSize,
+                           long ttlMillis, Scheduler clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        this.fetch = fetch;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Cached>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Cached> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Entries are kept until evicted by newer keys.
+     */
+    public static <K, V> MemoizingFunc1<K, V> create(Func1<? super K, ? extends Observable<? extends V>> fetch,
+                                                     int maxSize) {
+        return new MemoizingFunc1<K, V>(fetch, maxSize, -1, null);
+    }
+
+    /**
+     * Entries also expire {@code ttl} after their fetch started, as told by the scheduler's clock.
+     */
+    public static <K, V> MemoizingFunc1<K, V> create(Func1<? super K, ? extends Observable<? extends V>> fetch,
+                                                     int maxSize, long ttl, TimeUnit unit, Scheduler clock) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        return new MemoizingFunc1<K, V>(fetch, maxSize, unit.toMillis(ttl), clock);
+    }
+
+    @Override
+    public Observable<V> call(final K key) {
+        return Observable.create(new Observable.OnSubscribe<V>() {
+            @Override
+            public void call(Subscriber<? super V> child) {
+                entry(key).events.unsafeSubscribe(child);
+            }
+        });
+    }
+
+    private Cached entry(K key) {
+        long now = ttlMillis < 0 ? 0 : clock.now();
+        synchronized (entries) {
+            Cached entry = entries.get(key);
+            if (entry != null) {
+                if (ttlMillis < 0 || now - entry.created < ttlMillis) {
+                    hits.incrementAndGet();
+                    return entry;
+                }
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            entry = new Cached(key, now);
+            entries.put(key, entry);
+            return entry;
+        }
+    }
+
+    private void forget(K key, Cached entry) {
+        synchronized (entries) {
+            if (entries.get(key) == entry) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Drops the key, its next subscriber fetching it again.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Subscriptions served by an existing entry.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Subscriptions that started a fetch.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Entries dropped for room or because they expired; invalidated and failed ones are not counted.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Drops expired entries now rather than when their key is next asked for.
+     */
+    public void evictExpired() {
+        if (ttlMillis < 0) {
+            return;
+        }
+        long now = clock.now();
+        synchronized (entries) {
+            for (Iterator<Cached> it = entries.values().iterator(); it.hasNext(); ) {
+                if (now - it.next().created >= ttlMillis) {
+                    it.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * The function is called on the first subscription, outside the lock.
+     */
+    private final class Cached {
+        final long created;
+        final Observable<V> events;
+
+        Cached(final K key, long created) {
+            this.created = created;
+            this.events = Observable.defer(new Func0<Observable<V>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Observable<V> call() {
+                    return (Observable<V>) fetch.call(key);
+                }
+            }).doOnError(new Action1<Throwable>() {
+                @Override
+                public void call(Throwable e) {
+                    forget(key, Cached.this);
+                }
+            }).cache();
+        }
+    }
+}
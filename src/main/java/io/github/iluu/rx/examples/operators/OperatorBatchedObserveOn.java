@@ -0,0 +1,291 @@
+package io.github.iluu.rx.examples.operators;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Action0;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Variant of {@code observeOn} that moves values to the scheduler in batches rather than one by one.
+ * <p/>
+ * Values are collected on the producer thread until {@code batchSize} of them are gathered or
+ * {@code maxLinger} passes since the first one, then the whole batch is queued and drained on the worker
+ * in one go. Linger has millisecond resolution. Order of values and terminal events is kept; onError and
+ * onCompleted flush the pending batch first.
+ * <p/>
+ * Upstream is asked for at most {@code prefetch} values ahead of what the child has consumed, and the child
+ * receives only what it requests, so memory stays bounded regardless of source size or consumer speed
+ * (as long as the source honors backpressure).
+ */
+public class OperatorBatchedObserveOn<T> implements Observable.Operator<T, T> {
+
+    private final Scheduler scheduler;
+    private final int batchSize;
+    private final long maxLinger;
+    private final TimeUnit unit;
+    private final int prefetch;
+
+    /**
+     * Prefetches four batches.
+     *
+     * @param maxLinger how long a partial batch may wait for more values, 0 waits only for the terminal event
+     */
+    public OperatorBatchedObserveOn(Scheduler scheduler, int batchSize, long maxLinger, TimeUnit unit) {
+        this(scheduler, batchSize, maxLinger, unit, batchSize * 4);
+    }
+
+    /**
+     * @param maxLinger how long a partial batch may wait for more values, 0 waits only for the terminal event
+     * @param prefetch  most values requested from upstream and not yet delivered, at least {@code batchSize}
+     */
+    public OperatorBatchedObserveOn(Scheduler scheduler, int batchSize, long maxLinger, TimeUnit unit, int prefetch) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (maxLinger < 0) {
+            throw new IllegalArgumentException("Linger can not be negative");
+        }
+        if (prefetch < batchSize) {
+            throw new IllegalArgumentException("Prefetch can not be smaller than batch size");
+        }
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+        this.maxLinger = maxLinger;
+        this.unit = unit;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super T> child) {
+        Scheduler.Worker worker = scheduler.createWorker();
+        child.add(worker);
+        final BatchingSubscriber<T> parent = new BatchingSubscriber<T>(child, worker, batchSize, maxLinger, unit, prefetch);
+        child.setProducer(new Producer() {
+            @Override
+            public void request(long n) {
+                parent.requestFromChild(n);
+            }
+        });
+        return parent;
+    }
+
+    private static final class BatchingSubscriber<T> extends Subscriber<T> {
+        private final Subscriber<? super T> child;
+        private final Scheduler.Worker worker;
+        private final int batchSize;
+        private final long lingerMillis;
+        private final int prefetch;
+
+        private final Queue<Object[]> batches = new ConcurrentLinkedQueue<Object[]>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+
+        /* drain side, only touched on the worker */
+        private Object[] draining;
+        private int drainIndex;
+
+        /* guarded by this, shared between producer and linger timer */
+        private Object[] current;
+        private int size;
+        private long batchStart;
+        private boolean lingerScheduled;
+
+        private volatile boolean done;
+        private volatile Throwable error;
+
+        private final Action0 drain = new Action0() {
+            @Override
+            public void call() {
+                drain();
+            }
+        };
+
+        private final Action0 linger = new Action0() {
+            @Override
+            public void call() {
+                checkLinger();
+            }
+        };
+
+        BatchingSubscriber(Subscriber<? super T> child, Scheduler.Worker worker,
+                           int batchSize, long maxLinger, TimeUnit unit, int prefetch) {
+            super(child);
+            this.child = child;
+            this.worker = worker;
+            this.batchSize = batchSize;
+            this.lingerMillis = maxLinger > 0 ? Math.max(1, unit.toMillis(maxLinger)) : 0;
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        public void onStart() {
+            request(prefetch);
+        }
+
+        void requestFromChild(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            schedule();
+        }
+
+        /**
+         * A batch is queued under the same lock it's detached with, so a flush by the linger timer can't queue
+         * its batch behind a newer one.
+         */
+        @Override
+        public void onNext(T value) {
+            boolean full = false;
+            boolean startLinger = false;
+            synchronized (this) {
+                if (current == null) {
+                    current = new Object[batchSize];
+                    if (lingerMillis > 0) {
+                        batchStart = worker.now();
+                        startLinger = !lingerScheduled;
+                        lingerScheduled = true;
+                    }
+                }
+                current[size++] = value;
+                if (size == batchSize) {
+                    batches.offer(current);
+                    current = null;
+                    size = 0;
+                    full = true;
+                }
+            }
+            if (full) {
+                schedule();
+            }
+            if (startLinger) {
+                worker.schedule(linger, lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Flushes the partial batch once it's old enough, otherwise re-arms for the remaining time.
+         * At most one linger timer is pending, so a fast producer doesn't pay for a timer per batch.
+         */
+        private void checkLinger() {
+            long remaining;
+            synchronized (this) {
+                if (current == null) {
+                    lingerScheduled = false;
+                    return;
+                }
+                remaining = batchStart + lingerMillis - worker.now();
+            }
+            if (remaining > 0) {
+                worker.schedule(linger, remaining, TimeUnit.MILLISECONDS);
+            } else {
+                synchronized (this) {
+                    lingerScheduled = false;
+                }
+                if (flush()) {
+                    schedule();
+                }
+            }
+        }
+
+        /**
+         * Queues the batch being filled, if any.
+         */
+        private boolean flush() {
+            synchronized (this) {
+                if (current == null) {
+                    return false;
+                }
+                batches.offer(Arrays.copyOf(current, size));
+                current = null;
+                size = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            flush();
+            error = e;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onCompleted() {
+            flush();
+            done = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(drain);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            int missed = 1;
+            for (; ; ) {
+                long r = requested.get();
+                long emitted = 0;
+                for (; ; ) {
+                    if (child.isUnsubscribed()) {
+                        return;
+                    }
+                    if (draining == null) {
+                        boolean terminated = done;
+                        draining = batches.poll();
+                        drainIndex = 0;
+                        if (draining == null) {
+                            if (terminated) {
+                                Throwable e = error;
+                                if (e != null) {
+                                    child.onError(e);
+                                } else {
+                                    child.onCompleted();
+                                }
+                                return;
+                            }
+                            break;
+                        }
+                    }
+                    if (emitted == r) {
+                        break;
+                    }
+                    Object value = draining[drainIndex];
+                    draining[drainIndex++] = null;
+                    if (drainIndex == draining.length) {
+                        // replenish whole batches, partial ones included, so upstream can always fill the next
+                        request(draining.length);
+                        draining = null;
+                    }
+                    child.onNext((T) value);
+                    emitted++;
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
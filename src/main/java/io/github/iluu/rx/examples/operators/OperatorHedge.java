@@ -0,0 +1,271 @@
+package io.github.iluu.rx.examples.operators;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Action0;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Races the source against a backup to cut tail latency, where {@code onErrorResumeNext} only switches once
+ * the source has failed.
+ * <p/>
+ * If the source hasn't emitted within {@code hedgeDelay}, the backup is subscribed as well; whichever of the
+ * two emits first (a value or completion) wins and the other one is unsubscribed. If nothing has been emitted
+ * by {@code timeout}, the source is given up and the backup subscribed if it wasn't yet, so a hard timeout
+ * falls back the same way. An error of the source before it wins also starts the backup; the error reaches
+ * the child only when neither side is left.
+ * <p/>
+ * The operator counts, over all its subscriptions, how many times the backup was started and how many times
+ * it won, so the hedge delay can be tuned against the extra load it causes. Requests of the child are not
+ * passed on; meant for sources emitting few values, such as a single response.
+ */
+public class OperatorHedge<T> implements Observable.Operator<T, T> {
+
+    private final Observable<? extends T> backup;
+    private final long hedgeDelay;
+    private final long timeout;
+    private final TimeUnit unit;
+    private final Scheduler scheduler;
+
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * @param hedgeDelay how long the source may stay silent before the backup is started as well, -1 to only
+     *                   start it on timeout or error
+     * @param timeout    how long the source may stay silent before it is given up, -1 for no timeout
+     */
+    public OperatorHedge(Observable<? extends T> backup, long hedgeDelay, long timeout, TimeUnit unit,
+                         Scheduler scheduler) {
+        if (hedgeDelay < -1 || timeout < -1) {
+            throw new IllegalArgumentException("Delays must be positive, or -1 when not used");
+        }
+        if (hedgeDelay != -1 && timeout != -1 && timeout < hedgeDelay) {
+            throw new IllegalArgumentException("Timeout can not be shorter than hedge delay");
+        }
+        this.backup = backup;
+        this.hedgeDelay = hedgeDelay;
+        this.timeout = timeout;
+        this.unit = unit;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts the backup alongside the source once the source has been silent for {@code delay}.
+     */
+    public static <T> OperatorHedge<T> hedge(Observable<? extends T> backup, long delay, TimeUnit unit,
+                                             Scheduler scheduler) {
+        return new OperatorHedge<T>(backup, delay, -1, unit, scheduler);
+    }
+
+    /**
+     * Switches to the fallback once the source has been silent for {@code timeout}.
+     */
+    public static <T> OperatorHedge<T> timeout(Observable<? extends T> fallback, long timeout, TimeUnit unit,
+                                               Scheduler scheduler) {
+        return new OperatorHedge<T>(fallback, -1, timeout, unit, scheduler);
+    }
+
+    /**
+     * Times the backup was subscribed, after the hedge delay, a timeout or an error of the source.
+     */
+    public long getHedgesFired() {
+        return hedgesFired.get();
+    }
+
+    /**
+     * Times the backup emitted before the source.
+     */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super T> child) {
+        Scheduler.Worker worker = scheduler.createWorker();
+        child.add(worker);
+        final Race race = new Race(child, worker);
+        child.add(race.primary);
+        child.add(race.backup);
+        if (hedgeDelay != -1) {
+            worker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    race.hedge();
+                }
+            }, hedgeDelay, unit);
+        }
+        if (timeout != -1) {
+            worker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    race.timeout();
+                }
+            }, timeout, unit);
+        }
+        return race.primary;
+    }
+
+    /**
+     * State of one subscription. Deciding the winner takes the lock, once per contender; after that only
+     * the winner emits and the others see it through the volatile field.
+     */
+    private final class Race {
+        private final Subscriber<? super T> child;
+        private final Scheduler.Worker worker;
+        final Contender primary = new Contender(this);
+        final Contender backup = new Contender(this);
+
+        private volatile Contender winner;
+        /* guarded by this */
+        private boolean hedgeFired;
+        private boolean primaryGone;
+        private boolean backupGone;
+
+        Race(Subscriber<? super T> child, Scheduler.Worker worker) {
+            this.child = child;
+            this.worker = worker;
+        }
+
+        void hedge() {
+            synchronized (this) {
+                if (winner != null || hedgeFired) {
+                    return;
+                }
+                hedgeFired = true;
+            }
+            subscribeBackup();
+        }
+
+        void timeout() {
+            boolean startBackup;
+            Throwable error = null;
+            synchronized (this) {
+                if (winner != null || primaryGone) {
+                    return;
+                }
+                timeouts.incrementAndGet();
+                primaryGone = true;
+                startBackup = !hedgeFired;
+                hedgeFired = true;
+                if (!startBackup && backupGone) {
+                    winner = primary;
+                    error = new TimeoutException();
+                }
+            }
+            primary.unsubscribe();
+            if (startBackup) {
+                subscribeBackup();
+            } else if (error != null) {
+                worker.unsubscribe();
+                child.onError(error);
+            }
+        }
+
+        private void subscribeBackup() {
+            hedgesFired.incrementAndGet();
+            OperatorHedge.this.backup.unsafeSubscribe(backup);
+        }
+
+        boolean win(Contender contender) {
+            if (winner == contender) {
+                return true;
+            }
+            synchronized (this) {
+                // a contender given up may still emit, concurrently or ignoring its unsubscription
+                if (winner != null || isGone(contender)) {
+                    return false;
+                }
+                winner = contender;
+            }
+            worker.unsubscribe();
+            if (contender == primary) {
+                backup.unsubscribe();
+            } else {
+                hedgesWon.incrementAndGet();
+                primary.unsubscribe();
+            }
+            return true;
+        }
+
+        /* guarded by this */
+        private boolean isGone(Contender contender) {
+            return contender == primary ? primaryGone : backupGone;
+        }
+
+        void onNext(Contender contender, T value) {
+            if (win(contender)) {
+                child.onNext(value);
+            }
+        }
+
+        void onCompleted(Contender contender) {
+            if (win(contender)) {
+                child.onCompleted();
+            }
+        }
+
+        void onError(Contender contender, Throwable e) {
+            if (winner != contender) {
+                boolean startBackup = false;
+                boolean stillRacing;
+                synchronized (this) {
+                    if (winner != null || isGone(contender)) {
+                        return;
+                    }
+                    if (contender == primary) {
+                        primaryGone = true;
+                        startBackup = !hedgeFired;
+                        hedgeFired = true;
+                    } else {
+                        backupGone = true;
+                    }
+                    stillRacing = !primaryGone || !backupGone;
+                    if (!stillRacing) {
+                        winner = contender;
+                    }
+                }
+                if (startBackup) {
+                    subscribeBackup();
+                }
+                if (stillRacing) {
+                    return;
+                }
+                worker.unsubscribe();
+            }
+            child.onError(e);
+        }
+    }
+
+    private final class Contender extends Subscriber<T> {
+        private final Race race;
+
+        Contender(Race race) {
+            this.race = race;
+        }
+
+        @Override
+        public void onNext(T value) {
+            race.onNext(this, value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            race.onError(this, e);
+        }
+
+        @Override
+        public void onCompleted() {
+            race.onCompleted(this);
+        }
+    }
+}
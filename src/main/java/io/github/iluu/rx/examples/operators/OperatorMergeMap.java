@@ -0,0 +1,403 @@
+package io.github.iluu.rx.examples.operators;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Func1;
+import rx.subscriptions.CompositeSubscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Variant of {@code mergeMap} that keeps at most {@code maxConcurrency} inner observables subscribed at a time.
+ * <pre>
+ * ids.lift(new OperatorMergeMap&lt;Long, User&gt;(fetchUser, 16))
+ * </pre>
+ * Outer values that arrive while every slot is taken wait in a queue; upstream is asked for a new one only
+ * when an inner completes, so a source honoring backpressure never gets ahead by more than
+ * {@code maxConcurrency} values. Like {@code merge}, the first error is passed on at once.
+ * <p/>
+ * An inner value goes straight to the child when nothing else is being emitted and the child has
+ * requested it. Only an inner that has to wait gets a buffer, taken from a pool of this subscription that
+ * holds the buffers of up to {@link #POOLED_BUFFERS} completed inners. With a {@code maxConcurrency} up to
+ * that cap at most {@code maxConcurrency} buffers are ever allocated; above it, buffers released into a full
+ * pool are dropped and later inners allocate new ones, so a wide merge doesn't pin a buffer per slot.
+ * Inners are asked for {@link #PREFETCH} values ahead and fail with {@link MissingBackpressureException}
+ * if they send more.
+ */
+public class OperatorMergeMap<T, R> implements Observable.Operator<R, T> {
+
+    public static final int PREFETCH = 128;
+
+    public static final int POOLED_BUFFERS = 64;
+
+    private static final Object NULL = new Object();
+
+    private final Func1<? super T, ? extends Observable<? extends R>> func;
+    private final int maxConcurrency;
+
+    public OperatorMergeMap(Func1<? super T, ? extends Observable<? extends R>> func, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("At least one inner observable must be allowed");
+        }
+        this.func = func;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super R> child) {
+        final MergeSubscriber<T, R> parent = new MergeSubscriber<T, R>(child, func, maxConcurrency);
+        child.add(parent);
+        child.setProducer(new Producer() {
+            @Override
+            public void request(long n) {
+                parent.requestFromChild(n);
+            }
+        });
+        return parent;
+    }
+
+    private static final class MergeSubscriber<T, R> extends Subscriber<T> {
+        private final Subscriber<? super R> child;
+        private final Func1<? super T, ? extends Observable<? extends R>> func;
+        private final int maxConcurrency;
+
+        private final Queue<Object> waiting = new ConcurrentLinkedQueue<Object>();
+        private final CompositeSubscription innerSubscriptions = new CompositeSubscription();
+        private final BufferPool pool;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        private volatile boolean done;
+
+        /* drain side, only touched while holding wip */
+        private final List<InnerSubscriber<R>> active = new ArrayList<InnerSubscriber<R>>();
+        private int nextInner;
+        private boolean terminated;
+
+        MergeSubscriber(Subscriber<? super R> child, Func1<? super T, ? extends Observable<? extends R>> func,
+                        int maxConcurrency) {
+            this.child = child;
+            this.func = func;
+            this.maxConcurrency = maxConcurrency;
+            this.pool = new BufferPool(Math.min(maxConcurrency, POOLED_BUFFERS));
+            add(innerSubscriptions);
+        }
+
+        @Override
+        public void onStart() {
+            request(maxConcurrency == Integer.MAX_VALUE ? Long.MAX_VALUE : maxConcurrency);
+        }
+
+        void requestFromChild(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onNext(T value) {
+            waiting.offer(value == null ? NULL : value);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            fail(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            done = true;
+            drain();
+        }
+
+        void fail(Throwable e) {
+            if (error.compareAndSet(null, e)) {
+                drain();
+            }
+        }
+
+        /**
+         * Emits the value of an inner, directly if nothing else is being emitted, nothing is queued before it
+         * and the child has requested it, otherwise through the inner's buffer.
+         */
+        void emit(InnerSubscriber<R> inner, R value) {
+            if (inner.subscribingThread == Thread.currentThread()) {
+                // emitted while the drain subscribes the inner, so this thread already holds wip
+                emitOrEnqueue(inner, value);
+            } else if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+                emitOrEnqueue(inner, value);
+                if (wip.decrementAndGet() != 0) {
+                    drainLoop();
+                }
+            } else if (enqueue(inner, value)) {
+                drain();
+            }
+        }
+
+        private void emitOrEnqueue(InnerSubscriber<R> inner, R value) {
+            InnerBuffer buffer = inner.buffer;
+            long r = requested.get();
+            if (r != 0 && (buffer == null || buffer.isEmpty()) && !terminated) {
+                if (r != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+                child.onNext(value);
+                inner.produced();
+            } else {
+                enqueue(inner, value);
+            }
+        }
+
+        private boolean enqueue(InnerSubscriber<R> inner, R value) {
+            InnerBuffer buffer = inner.buffer;
+            if (buffer == null) {
+                buffer = pool.acquire();
+                inner.buffer = buffer;
+            }
+            if (!buffer.offer(value == null ? NULL : value)) {
+                inner.unsubscribe();
+                fail(new MissingBackpressureException());
+                return false;
+            }
+            return true;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() == 0) {
+                drainLoop();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drainLoop() {
+            int missed = 1;
+            for (; ; ) {
+                if (terminated) {
+                    return;
+                }
+                if (child.isUnsubscribed()) {
+                    terminated = true;
+                    return;
+                }
+                Throwable e = error.get();
+                if (e != null) {
+                    terminated = true;
+                    unsubscribe();
+                    child.onError(e);
+                    return;
+                }
+
+                int freed = 0;
+                while (active.size() < maxConcurrency) {
+                    Object value = waiting.poll();
+                    if (value == null) {
+                        break;
+                    }
+                    if (!subscribeInner(value == NULL ? null : (T) value)) {
+                        return;
+                    }
+                }
+
+                long r = requested.get();
+                long emitted = 0;
+                int size = active.size();
+                // round robin over the inners, starting after the last one served, so none of them starves
+                for (int i = 0; i < size && !active.isEmpty(); i++) {
+                    if (nextInner >= active.size()) {
+                        nextInner = 0;
+                    }
+                    InnerSubscriber<R> inner = active.get(nextInner);
+                    boolean innerDone = inner.done;
+                    InnerBuffer buffer = inner.buffer;
+                    if (buffer != null) {
+                        Object value;
+                        while (emitted != r && (value = buffer.poll()) != null) {
+                            child.onNext(value == NULL ? null : (R) value);
+                            inner.produced();
+                            emitted++;
+                        }
+                    }
+                    if (innerDone && (buffer == null || buffer.isEmpty())) {
+                        active.remove(nextInner);
+                        innerSubscriptions.remove(inner);
+                        if (buffer != null) {
+                            inner.buffer = null;
+                            pool.release(buffer);
+                        }
+                        freed++;
+                    } else {
+                        nextInner++;
+                    }
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+
+                if (done && active.isEmpty() && waiting.isEmpty()) {
+                    terminated = true;
+                    child.onCompleted();
+                    return;
+                }
+                if (freed != 0) {
+                    request(freed);
+                    // start waiting outer values, or the ones just requested, on the next pass
+                    continue;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private boolean subscribeInner(T value) {
+            Observable<? extends R> observable;
+            try {
+                observable = func.call(value);
+            } catch (Throwable e) {
+                terminated = true;
+                unsubscribe();
+                child.onError(e);
+                return false;
+            }
+            InnerSubscriber<R> inner = new InnerSubscriber<R>(this);
+            active.add(inner);
+            innerSubscriptions.add(inner);
+            inner.subscribingThread = Thread.currentThread();
+            observable.unsafeSubscribe(inner);
+            inner.subscribingThread = null;
+            return true;
+        }
+    }
+
+    private static final class InnerSubscriber<R> extends Subscriber<R> {
+        private static final int LIMIT = PREFETCH / 2;
+
+        private final MergeSubscriber<?, R> parent;
+        /* set by the inner's emitter, handed back to the pool by the drain */
+        volatile InnerBuffer buffer;
+        volatile boolean done;
+        /* drain thread while it subscribes this inner; other threads never see themselves here */
+        Thread subscribingThread;
+        /* only touched while holding the parent's wip */
+        private int consumed;
+
+        InnerSubscriber(MergeSubscriber<?, R> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void onStart() {
+            request(PREFETCH);
+        }
+
+        @Override
+        public void onNext(R value) {
+            parent.emit(this, value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            done = true;
+            parent.fail(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            done = true;
+            parent.drain();
+        }
+
+        /**
+         * Replenishes the inner in chunks rather than a value at a time.
+         */
+        void produced() {
+            if (++consumed == LIMIT) {
+                consumed = 0;
+                request(LIMIT);
+            }
+        }
+    }
+
+    /**
+     * Single producer, single consumer ring of {@link #PREFETCH} slots. Empty slots are null, so each side
+     * only reads the other's writes to the slots and keeps its own index.
+     */
+    private static final class InnerBuffer {
+        private static final int MASK = PREFETCH - 1;
+
+        private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<Object>(PREFETCH);
+        private long producerIndex;
+        private long consumerIndex;
+
+        boolean offer(Object value) {
+            int index = (int) producerIndex & MASK;
+            if (slots.get(index) != null) {
+                return false;
+            }
+            slots.lazySet(index, value);
+            producerIndex++;
+            return true;
+        }
+
+        Object poll() {
+            int index = (int) consumerIndex & MASK;
+            Object value = slots.get(index);
+            if (value != null) {
+                slots.lazySet(index, null);
+                consumerIndex++;
+            }
+            return value;
+        }
+
+        boolean isEmpty() {
+            return slots.get((int) consumerIndex & MASK) == null;
+        }
+    }
+
+    /**
+     * Buffers of completed inners, kept for the next inners that have to wait. Only touched when an inner
+     * first buffers and when it completes, never per value, so a lock is cheap enough.
+     */
+    private static final class BufferPool {
+        private final InnerBuffer[] buffers;
+        private int size;
+
+        BufferPool(int capacity) {
+            this.buffers = new InnerBuffer[capacity];
+        }
+
+        synchronized InnerBuffer acquire() {
+            if (size == 0) {
+                return new InnerBuffer();
+            }
+            InnerBuffer buffer = buffers[--size];
+            buffers[size] = null;
+            return buffer;
+        }
+
+        synchronized void release(InnerBuffer buffer) {
+            if (size < buffers.length) {
+                buffers[size++] = buffer;
+            }
+        }
+    }
+}
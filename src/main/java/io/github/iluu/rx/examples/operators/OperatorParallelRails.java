@@ -0,0 +1,319 @@
+package io.github.iluu.rx.examples.operators;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Action0;
+import rx.functions.Func1;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runs a map (and optional filter) on several "rails" in parallel, each rail being a worker of the scheduler.
+ * <p/>
+ * Values are dealt to the rails round-robin and every rail applies the functions on its own thread, so a
+ * CPU-heavy map can use as many cores as there are rails. Results are either merged as they come
+ * (unordered) or put back into source order through a reorder buffer of {@code window} slots. Either way
+ * upstream is asked for at most {@code window} values ahead of what has been delivered, which also bounds
+ * how far one slow value can hold up the ordered output. The ordered mode needs a source that honors
+ * backpressure and fails with {@link MissingBackpressureException} otherwise.
+ */
+public class OperatorParallelRails<T, R> implements Observable.Operator<R, T> {
+
+    private static final Object NULL = new Object();
+    private static final Object SKIP = new Object();
+
+    private final Scheduler scheduler;
+    private final int rails;
+    private final Func1<? super T, ? extends R> mapper;
+    private final Func1<? super R, Boolean> filter;
+    private final boolean ordered;
+    private final int window;
+
+    /**
+     * Maps without filtering, with a window of 128 values per rail.
+     */
+    public OperatorParallelRails(Scheduler scheduler, int rails, Func1<? super T, ? extends R> mapper,
+                                 boolean ordered) {
+        this(scheduler, rails, mapper, null, ordered, rails * 128);
+    }
+
+    /**
+     * @param filter applied to mapped values on the rail, null keeps all of them
+     * @param window most values requested from upstream and not yet delivered, at least {@code rails}
+     */
+    public OperatorParallelRails(Scheduler scheduler, int rails, Func1<? super T, ? extends R> mapper,
+                                 Func1<? super R, Boolean> filter, boolean ordered, int window) {
+        if (rails < 1) {
+            throw new IllegalArgumentException("Number of rails must be positive");
+        }
+        if (window < rails) {
+            throw new IllegalArgumentException("Window can not be smaller than number of rails");
+        }
+        this.scheduler = scheduler;
+        this.rails = rails;
+        this.mapper = mapper;
+        this.filter = filter;
+        this.ordered = ordered;
+        this.window = window;
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super R> child) {
+        final RailsSubscriber<T, R> parent = new RailsSubscriber<T, R>(child, this);
+        child.add(parent);
+        child.setProducer(new Producer() {
+            @Override
+            public void request(long n) {
+                parent.requestFromChild(n);
+            }
+        });
+        return parent;
+    }
+
+    private static final class RailsSubscriber<T, R> extends Subscriber<T> {
+        private final Subscriber<? super R> child;
+        private final Func1<? super T, ? extends R> mapper;
+        private final Func1<? super R, Boolean> filter;
+        private final int window;
+        private final Rail[] rails;
+
+        /* ordered mode keeps results by sequence, unordered mode in arrival order */
+        private final AtomicReferenceArray<Object> slots;
+        private final Queue<Object> results;
+
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        private volatile boolean done;
+        /* written by upstream only */
+        private volatile long received;
+        /* written by the output drain only */
+        private volatile long consumed;
+
+        RailsSubscriber(Subscriber<? super R> child, OperatorParallelRails<T, R> operator) {
+            this.child = child;
+            this.mapper = operator.mapper;
+            this.filter = operator.filter;
+            this.window = operator.window;
+            @SuppressWarnings("unchecked")
+            Rail[] all = (Rail[]) new RailsSubscriber<?, ?>.Rail[operator.rails];
+            this.rails = all;
+            for (int i = 0; i < rails.length; i++) {
+                rails[i] = new Rail(operator.scheduler.createWorker(), i);
+                child.add(rails[i].worker);
+            }
+            if (operator.ordered) {
+                slots = new AtomicReferenceArray<Object>(window);
+                results = null;
+            } else {
+                slots = null;
+                results = new ConcurrentLinkedQueue<Object>();
+            }
+        }
+
+        @Override
+        public void onStart() {
+            request(window);
+        }
+
+        void requestFromChild(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onNext(T value) {
+            long sequence = received;
+            if (slots != null && sequence - consumed >= window) {
+                fail(new MissingBackpressureException());
+                return;
+            }
+            received = sequence + 1;
+            rails[(int) (sequence % rails.length)].offer(value == null ? NULL : value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            fail(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            done = true;
+            drain();
+        }
+
+        private void fail(Throwable e) {
+            if (error.compareAndSet(null, e)) {
+                unsubscribe();
+                drain();
+            }
+        }
+
+        private boolean cancelled() {
+            return error.get() != null || child.isUnsubscribed();
+        }
+
+        /**
+         * Called on a rail once it has the result (or {@link #SKIP}) for the value with the given sequence.
+         */
+        private void publish(long sequence, Object result) {
+            if (slots != null) {
+                slots.set((int) (sequence % window), result);
+            } else {
+                results.offer(result);
+            }
+            drain();
+        }
+
+        /**
+         * Emits ready results to the child, on whichever thread gets here first, and replenishes upstream
+         * with the number of values taken out of the buffer.
+         */
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (; ; ) {
+                long r = requested.get();
+                long emitted = 0;
+                long c = consumed;
+                long taken = 0;
+                for (; ; ) {
+                    if (child.isUnsubscribed()) {
+                        return;
+                    }
+                    Throwable e = error.get();
+                    if (e != null) {
+                        child.onError(e);
+                        unsubscribeRails();
+                        return;
+                    }
+                    boolean terminated = done;
+                    Object result = slots != null ? slots.get((int) (c % window)) : results.peek();
+                    if (result == null) {
+                        if (terminated && c == received) {
+                            child.onCompleted();
+                            unsubscribeRails();
+                            return;
+                        }
+                        break;
+                    }
+                    if (result != SKIP && emitted == r) {
+                        break;
+                    }
+                    if (slots != null) {
+                        slots.lazySet((int) (c % window), null);
+                    } else {
+                        results.poll();
+                    }
+                    c++;
+                    taken++;
+                    if (result != SKIP) {
+                        child.onNext(result == NULL ? null : (R) result);
+                        emitted++;
+                    }
+                }
+                consumed = c;
+                if (taken != 0) {
+                    request(taken);
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void unsubscribeRails() {
+            for (Rail rail : rails) {
+                rail.worker.unsubscribe();
+            }
+        }
+
+        /**
+         * Queue and worker of one rail. The rail gets every n-th value, so it knows the sequence of each
+         * without it being passed along.
+         */
+        private final class Rail {
+            final Scheduler.Worker worker;
+            private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+            private final AtomicInteger wip = new AtomicInteger();
+            /* worker only */
+            private long sequence;
+
+            private final Action0 drain = new Action0() {
+                @Override
+                public void call() {
+                    drain();
+                }
+            };
+
+            Rail(Scheduler.Worker worker, int index) {
+                this.worker = worker;
+                this.sequence = index;
+            }
+
+            void offer(Object value) {
+                queue.offer(value);
+                if (wip.getAndIncrement() == 0) {
+                    worker.schedule(drain);
+                }
+            }
+
+            @SuppressWarnings("unchecked")
+            private void drain() {
+                int missed = 1;
+                for (; ; ) {
+                    Object value;
+                    while ((value = queue.poll()) != null) {
+                        if (cancelled()) {
+                            queue.clear();
+                            return;
+                        }
+                        Object result;
+                        try {
+                            R mapped = mapper.call(value == NULL ? null : (T) value);
+                            if (filter != null && !filter.call(mapped)) {
+                                result = SKIP;
+                            } else {
+                                result = mapped == null ? NULL : mapped;
+                            }
+                        } catch (Throwable e) {
+                            fail(e);
+                            return;
+                        }
+                        publish(sequence, result);
+                        sequence += rails.length;
+                    }
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package io.github.iluu.rx.examples.operators;
+
+import io.github.iluu.rx.examples.primitive.IntObservable;
+import io.github.iluu.rx.examples.primitive.IntSubscriber;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory-bounded {@code takeLast}, to be used with {@code lift}. The last values are kept in a circular array
+ * allocated once with exactly {@code count} slots, so a stream of any length costs constant memory and no
+ * allocation per value; the int and long variants keep primitives rather than boxes.
+ * <pre>
+ * readings.lift(TakeLast.&lt;Reading&gt;last(100))
+ * requests.lift(TakeLast.&lt;Request&gt;last(10, TimeUnit.SECONDS, Schedulers.computation(), 10000))
+ * </pre>
+ * Values are emitted when the source completes. For unboxed streams see {@link IntObservable#takeLast(int)}.
+ */
+public final class TakeLast {
+
+    private TakeLast() {
+    }
+
+    public static <T> Observable.Operator<T, T> last(final int count) {
+        checkCount(count);
+        return new Observable.Operator<T, T>() {
+            @Override
+            public Subscriber<? super T> call(final Subscriber<? super T> child) {
+                return new RingSubscriber<T, T>(child, count) {
+                    private final Object[] ring = new Object[count];
+
+                    @Override
+                    public void onNext(T value) {
+                        ring[slots.next()] = value;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    T valueAt(int index) {
+                        return (T) ring[index];
+                    }
+                };
+            }
+        };
+    }
+
+    public static Observable.Operator<Integer, Integer> lastOfInts(final int count) {
+        checkCount(count);
+        return new Observable.Operator<Integer, Integer>() {
+            @Override
+            public Subscriber<? super Integer> call(final Subscriber<? super Integer> child) {
+                return new RingSubscriber<Integer, Integer>(child, count) {
+                    private final int[] ring = new int[count];
+
+                    @Override
+                    public void onNext(Integer value) {
+                        ring[slots.next()] = value;
+                    }
+
+                    @Override
+                    Integer valueAt(int index) {
+                        return ring[index];
+                    }
+                };
+            }
+        };
+    }
+
+    public static Observable.Operator<Long, Long> lastOfLongs(final int count) {
+        checkCount(count);
+        return new Observable.Operator<Long, Long>() {
+            @Override
+            public Subscriber<? super Long> call(final Subscriber<? super Long> child) {
+                return new RingSubscriber<Long, Long>(child, count) {
+                    private final long[] ring = new long[count];
+
+                    @Override
+                    public void onNext(Long value) {
+                        ring[slots.next()] = value;
+                    }
+
+                    @Override
+                    Long valueAt(int index) {
+                        return ring[index];
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Values emitted within {@code time} before the source completed, like {@code takeLast(time, unit)}, but
+     * at most the last {@code capacity} of them, so the buffer never grows. Values are evicted by their
+     * {@code scheduler.now()} timestamp as new ones arrive and once more on completion.
+     */
+    public static <T> Observable.Operator<T, T> last(long time, TimeUnit unit, final Scheduler scheduler,
+                                                     final int capacity) {
+        checkCount(capacity);
+        final long span = unit.toMillis(time);
+        return new Observable.Operator<T, T>() {
+            @Override
+            public Subscriber<? super T> call(final Subscriber<? super T> child) {
+                return new RingSubscriber<T, T>(child, capacity) {
+                    private final Object[] ring = new Object[capacity];
+                    private final long[] timestamps = new long[capacity];
+
+                    @Override
+                    public void onNext(T value) {
+                        long now = scheduler.now();
+                        evictOlderThan(now - span);
+                        int index = slots.next();
+                        ring[index] = value;
+                        timestamps[index] = now;
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        evictOlderThan(scheduler.now() - span);
+                        super.onCompleted();
+                    }
+
+                    private void evictOlderThan(long limit) {
+                        while (slots.size > 0 && timestamps[slots.head] <= limit) {
+                            ring[slots.removeOldest()] = null;
+                        }
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    T valueAt(int index) {
+                        return (T) ring[index];
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Last {@code count} values of an {@link IntObservable}, kept in an {@code int[]}; see
+     * {@link IntObservable#takeLast(int)}.
+     */
+    public static IntObservable.Operator lastOfPrimitiveInts(final int count) {
+        checkCount(count);
+        return new IntObservable.Operator() {
+            @Override
+            public IntSubscriber call(final IntSubscriber child) {
+                return new IntSubscriber(child) {
+                    private final RingIndex slots = new RingIndex(count);
+                    private final int[] ring = new int[count];
+
+                    @Override
+                    public void onNext(int value) {
+                        ring[slots.next()] = value;
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        child.onError(e);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        for (int i = 0; i < slots.size; i++) {
+                            if (child.isUnsubscribed()) {
+                                return;
+                            }
+                            child.onNext(ring[slots.slot(i)]);
+                        }
+                        child.onCompleted();
+                    }
+                };
+            }
+        };
+    }
+
+    private static void checkCount(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be positive, use ignoreElements to take none");
+        }
+    }
+
+    /**
+     * Head and size of a circular array of {@code capacity} slots, the array itself being kept by its user.
+     */
+    private static final class RingIndex {
+        final int capacity;
+        int head;
+        int size;
+
+        RingIndex(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Slot for a new value, which overwrites the oldest one once the ring is full.
+         */
+        int next() {
+            if (size == capacity) {
+                removeOldest();
+            }
+            return slot(size++);
+        }
+
+        /**
+         * Slot of the {@code i}-th oldest value.
+         */
+        int slot(int i) {
+            int index = head + i;
+            return index < capacity ? index : index - capacity;
+        }
+
+        /**
+         * Drops the oldest value, returning its slot.
+         */
+        int removeOldest() {
+            int index = head;
+            head = head + 1 == capacity ? 0 : head + 1;
+            size--;
+            return index;
+        }
+    }
+
+    /**
+     * Emits the content of a ring kept by the subclass on completion.
+     */
+    private abstract static class RingSubscriber<T, R> extends Subscriber<T> {
+        private final Subscriber<? super R> child;
+        final RingIndex slots;
+
+        RingSubscriber(Subscriber<? super R> child, int capacity) {
+            super(child);
+            this.child = child;
+            this.slots = new RingIndex(capacity);
+        }
+
+        abstract R valueAt(int index);
+
+        @Override
+        public void onStart() {
+            request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            child.onError(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            for (int i = 0; i < slots.size; i++) {
+                if (child.isUnsubscribed()) {
+                    return;
+                }
+                child.onNext(valueAt(slots.slot(i)));
+            }
+            child.onCompleted();
+        }
+    }
+}
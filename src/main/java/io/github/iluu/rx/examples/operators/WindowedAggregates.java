@@ -0,0 +1,355 @@
+package io.github.iluu.rx.examples.operators;
+
+import io.github.iluu.rx.examples.metrics.LatencyHistogram;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Func0;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling aggregates over the last {@code count} values or the values of the last {@code span} of time, to be
+ * used with {@code lift}. Like {@code scan}, every value is followed by the aggregate of the window it closes.
+ * <pre>
+ * latencies.lift(WindowedAggregates.max(1000))
+ * latencies.lift(WindowedAggregates.percentile(99, 10, TimeUnit.SECONDS, Schedulers.computation()))
+ * </pre>
+ * The window is updated per value rather than recomputed: sum and average subtract the value leaving the
+ * window, min and max keep a two-stack queue and the percentile a binary indexed tree over histogram
+ * buckets, so every value costs O(1) amortized (O(log buckets) for the percentile). Values are read as
+ * longs; the percentile has the ~6% relative error of {@link LatencyHistogram} buckets and counts negative
+ * values as 0. Time windows use {@code scheduler.now()} and only move when a value arrives.
+ */
+public final class WindowedAggregates {
+
+    private WindowedAggregates() {
+    }
+
+    /**
+     * Aggregate of a window, told about every value that enters and, oldest first, every value that leaves.
+     */
+    interface Aggregate<R> {
+        void add(long value);
+
+        void evict(long value);
+
+        R result();
+    }
+
+    public static Observable.Operator<Long, Number> sum(int count) {
+        return new OperatorWindowedAggregate<Long>(count, 0, null, SUM);
+    }
+
+    public static Observable.Operator<Long, Number> sum(long span, TimeUnit unit, Scheduler scheduler) {
+        return new OperatorWindowedAggregate<Long>(0, unit.toMillis(span), scheduler, SUM);
+    }
+
+    public static Observable.Operator<Double, Number> average(int count) {
+        return new OperatorWindowedAggregate<Double>(count, 0, null, AVERAGE);
+    }
+
+    public static Observable.Operator<Double, Number> average(long span, TimeUnit unit, Scheduler scheduler) {
+        return new OperatorWindowedAggregate<Double>(0, unit.toMillis(span), scheduler, AVERAGE);
+    }
+
+    public static Observable.Operator<Long, Number> min(int count) {
+        return new OperatorWindowedAggregate<Long>(count, 0, null, extreme(false));
+    }
+
+    public static Observable.Operator<Long, Number> min(long span, TimeUnit unit, Scheduler scheduler) {
+        return new OperatorWindowedAggregate<Long>(0, unit.toMillis(span), scheduler, extreme(false));
+    }
+
+    public static Observable.Operator<Long, Number> max(int count) {
+        return new OperatorWindowedAggregate<Long>(count, 0, null, extreme(true));
+    }
+
+    public static Observable.Operator<Long, Number> max(long span, TimeUnit unit, Scheduler scheduler) {
+        return new OperatorWindowedAggregate<Long>(0, unit.toMillis(span), scheduler, extreme(true));
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     */
+    public static Observable.Operator<Long, Number> percentile(double percentile, int count) {
+        return new OperatorWindowedAggregate<Long>(count, 0, null, percentileOf(percentile));
+    }
+
+    public static Observable.Operator<Long, Number> percentile(double percentile, long span, TimeUnit unit,
+                                                               Scheduler scheduler) {
+        return new OperatorWindowedAggregate<Long>(0, unit.toMillis(span), scheduler, percentileOf(percentile));
+    }
+
+    private static final Func0<Aggregate<Long>> SUM = new Func0<Aggregate<Long>>() {
+        @Override
+        public Aggregate<Long> call() {
+            return new Aggregate<Long>() {
+                private long sum;
+
+                @Override
+                public void add(long value) {
+                    sum += value;
+                }
+
+                @Override
+                public void evict(long value) {
+                    sum -= value;
+                }
+
+                @Override
+                public Long result() {
+                    return sum;
+                }
+            };
+        }
+    };
+
+    private static final Func0<Aggregate<Double>> AVERAGE = new Func0<Aggregate<Double>>() {
+        @Override
+        public Aggregate<Double> call() {
+            return new Aggregate<Double>() {
+                private long sum;
+                private long count;
+
+                @Override
+                public void add(long value) {
+                    sum += value;
+                    count++;
+                }
+
+                @Override
+                public void evict(long value) {
+                    sum -= value;
+                    count--;
+                }
+
+                @Override
+                public Double result() {
+                    return (double) sum / count;
+                }
+            };
+        }
+    };
+
+    private static Func0<Aggregate<Long>> extreme(final boolean max) {
+        return new Func0<Aggregate<Long>>() {
+            @Override
+            public Aggregate<Long> call() {
+                return new TwoStackExtreme(max);
+            }
+        };
+    }
+
+    private static Func0<Aggregate<Long>> percentileOf(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        return new Func0<Aggregate<Long>>() {
+            @Override
+            public Aggregate<Long> call() {
+                return new BucketTreePercentile(percentile);
+            }
+        };
+    }
+
+    /**
+     * Min or max of a FIFO window as a queue made of two stacks that each keep the extreme of the values below
+     * every entry. New values are pushed on the in-stack; evicting pops the out-stack, which is refilled
+     * from the in-stack (reversing it, so the oldest is on top) only when empty.
+     */
+    static final class TwoStackExtreme implements Aggregate<Long> {
+        private final boolean max;
+        private long[] inValues = new long[16];
+        private long[] inExtremes = new long[16];
+        private int inSize;
+        private long[] outExtremes = new long[16];
+        private int outSize;
+
+        TwoStackExtreme(boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        public void add(long value) {
+            if (inSize == inValues.length) {
+                inValues = grow(inValues);
+                inExtremes = grow(inExtremes);
+            }
+            inValues[inSize] = value;
+            inExtremes[inSize] = inSize == 0 ? value : pick(inExtremes[inSize - 1], value);
+            inSize++;
+        }
+
+        @Override
+        public void evict(long value) {
+            if (outSize == 0) {
+                if (outExtremes.length < inSize) {
+                    outExtremes = new long[inValues.length];
+                }
+                for (int i = inSize - 1; i >= 0; i--) {
+                    long moved = inValues[i];
+                    outExtremes[outSize] = outSize == 0 ? moved : pick(outExtremes[outSize - 1], moved);
+                    outSize++;
+                }
+                inSize = 0;
+            }
+            outSize--;
+        }
+
+        @Override
+        public Long result() {
+            if (inSize == 0) {
+                return outExtremes[outSize - 1];
+            }
+            if (outSize == 0) {
+                return inExtremes[inSize - 1];
+            }
+            return pick(inExtremes[inSize - 1], outExtremes[outSize - 1]);
+        }
+
+        private long pick(long a, long b) {
+            return max ? Math.max(a, b) : Math.min(a, b);
+        }
+
+        private static long[] grow(long[] array) {
+            long[] grown = new long[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            return grown;
+        }
+    }
+
+    /**
+     * Counts of the window's values per {@link LatencyHistogram} bucket kept in a binary indexed (Fenwick)
+     * tree, so both updating a count and finding the bucket of a rank take O(log buckets).
+     */
+    static final class BucketTreePercentile implements Aggregate<Long> {
+        private static final int SIZE = LatencyHistogram.BUCKETS;
+        private static final int TOP_STEP = Integer.highestOneBit(SIZE);
+
+        private final double percentile;
+        /* tree[i] holds the count of buckets (i - lowbit(i), i], 1-based */
+        private final long[] tree = new long[SIZE + 1];
+        private long count;
+
+        BucketTreePercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        @Override
+        public void add(long value) {
+            update(value, 1);
+        }
+
+        @Override
+        public void evict(long value) {
+            update(value, -1);
+        }
+
+        private void update(long value, int delta) {
+            count += delta;
+            for (int i = LatencyHistogram.indexOf(Math.max(0, value)) + 1; i <= SIZE; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        @Override
+        public Long result() {
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            int position = 0;
+            for (int step = TOP_STEP; step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= SIZE && tree[next] < rank) {
+                    position = next;
+                    rank -= tree[next];
+                }
+            }
+            // position is the number of buckets holding fewer values than the rank, so it's the 0-based bucket
+            return LatencyHistogram.highestValueOf(position);
+        }
+    }
+
+    private static final class OperatorWindowedAggregate<R> implements Observable.Operator<R, Number> {
+        private final int count;
+        private final long spanMillis;
+        private final Scheduler scheduler;
+        private final Func0<? extends Aggregate<R>> aggregateFactory;
+
+        OperatorWindowedAggregate(int count, long spanMillis, Scheduler scheduler,
+                                  Func0<? extends Aggregate<R>> aggregateFactory) {
+            if (scheduler == null && count < 1) {
+                throw new IllegalArgumentException("Window must hold at least one value");
+            }
+            if (scheduler != null && spanMillis < 1) {
+                throw new IllegalArgumentException("Window span must be at least a millisecond");
+            }
+            this.count = count;
+            this.spanMillis = spanMillis;
+            this.scheduler = scheduler;
+            this.aggregateFactory = aggregateFactory;
+        }
+
+        @Override
+        public Subscriber<? super Number> call(final Subscriber<? super R> child) {
+            final Aggregate<R> aggregate = aggregateFactory.call();
+            return new Subscriber<Number>(child) {
+                /* ring of the window's values (and arrival times for time windows), oldest at head */
+                private long[] values = new long[scheduler == null ? count : 16];
+                private long[] times = scheduler == null ? null : new long[16];
+                private int head;
+                private int size;
+
+                @Override
+                public void onNext(Number number) {
+                    long value = number.longValue();
+                    if (scheduler == null) {
+                        if (size == count) {
+                            evictOldest();
+                        }
+                    } else {
+                        long now = scheduler.now();
+                        while (size > 0 && times[head] <= now - spanMillis) {
+                            evictOldest();
+                        }
+                        if (size == values.length) {
+                            grow();
+                        }
+                        times[(head + size) % times.length] = now;
+                    }
+                    values[(head + size) % values.length] = value;
+                    size++;
+                    aggregate.add(value);
+                    child.onNext(aggregate.result());
+                }
+
+                private void evictOldest() {
+                    aggregate.evict(values[head]);
+                    head = (head + 1) % values.length;
+                    size--;
+                }
+
+                private void grow() {
+                    long[] grownValues = new long[values.length * 2];
+                    long[] grownTimes = new long[values.length * 2];
+                    for (int i = 0; i < size; i++) {
+                        grownValues[i] = values[(head + i) % values.length];
+                        grownTimes[i] = times[(head + i) % values.length];
+                    }
+                    values = grownValues;
+                    times = grownTimes;
+                    head = 0;
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    child.onError(e);
+                }
+
+                @Override
+                public void onCompleted() {
+                    child.onCompleted();
+                }
+            };
+        }
+    }
+}
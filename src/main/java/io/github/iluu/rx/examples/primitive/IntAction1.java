@@ -0,0 +1,8 @@
+package io.github.iluu.rx.examples.primitive;
+
+/**
+ * Unboxed counterpart of {@code Action1<Integer>}.
+ */
+public interface IntAction1 {
+    void call(int value);
+}
@@ -0,0 +1,8 @@
+package io.github.iluu.rx.examples.primitive;
+
+/**
+ * Unboxed counterpart of {@code Func1<Integer, Integer>}.
+ */
+public interface IntFunc1 {
+    int call(int value);
+}
@@ -0,0 +1,8 @@
+package io.github.iluu.rx.examples.primitive;
+
+/**
+ * Unboxed counterpart of {@code Func2<Integer, Integer, Integer>}.
+ */
+public interface IntFunc2 {
+    int call(int first, int second);
+}
@@ -0,0 +1,402 @@
+package io.github.iluu.rx.examples.primitive;
+
+import io.github.iluu.rx.examples.operators.TakeLast;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.exceptions.OnErrorNotImplementedException;
+import rx.functions.Action0;
+
+/**
+ * Stream of primitive ints. Supports the range &rarr; map &rarr; subscribe style pipelines of
+ * {@code SchedulingSamples} without allocating an {@code Integer} per element.
+ * <p/>
+ * Use {@link #from(Observable)} and {@link #toObservable()} to cross over to boxed {@link Observable}s.
+ */
+public class IntObservable {
+
+    public interface OnSubscribe {
+        void call(IntSubscriber subscriber);
+    }
+
+    /**
+     * Wraps a downstream subscriber into one that is given to upstream.
+     */
+    public interface Operator {
+        IntSubscriber call(IntSubscriber child);
+    }
+
+    private final OnSubscribe onSubscribe;
+
+    protected IntObservable(OnSubscribe onSubscribe) {
+        this.onSubscribe = onSubscribe;
+    }
+
+    public static IntObservable create(OnSubscribe onSubscribe) {
+        return new IntObservable(onSubscribe);
+    }
+
+    /**
+     * Emits {@code count} sequential ints starting at {@code start}.
+     */
+    public static IntObservable range(final int start, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count can not be negative");
+        }
+        if (count > 0 && start > Integer.MAX_VALUE - count + 1) {
+            throw new IllegalArgumentException("start + count can not exceed Integer.MAX_VALUE");
+        }
+        return create(new OnSubscribe() {
+            @Override
+            public void call(IntSubscriber subscriber) {
+                // wraps past Integer.MAX_VALUE when the range ends there, the loop compares for equality
+                int end = start + count;
+                for (int i = start; i != end; i++) {
+                    if (subscriber.isUnsubscribed()) {
+                        return;
+                    }
+                    subscriber.onNext(i);
+                }
+                if (!subscriber.isUnsubscribed()) {
+                    subscriber.onCompleted();
+                }
+            }
+        });
+    }
+
+    /**
+     * Unboxes values of the given observable. Emitting null results in {@link NullPointerException} onError.
+     */
+    public static IntObservable from(final Observable<Integer> source) {
+        return create(new OnSubscribe() {
+            @Override
+            public void call(final IntSubscriber subscriber) {
+                Subscriber<Integer> unboxing = new Subscriber<Integer>() {
+                    @Override
+                    public void onNext(Integer value) {
+                        subscriber.onNext(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        subscriber.onError(e);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        subscriber.onCompleted();
+                    }
+                };
+                subscriber.add(unboxing);
+                source.unsafeSubscribe(unboxing);
+            }
+        });
+    }
+
+    /**
+     * Boxes every value, so the rest of the pipeline can use regular Rx operators.
+     */
+    public Observable<Integer> toObservable() {
+        return Observable.create(new Observable.OnSubscribe<Integer>() {
+            @Override
+            public void call(final Subscriber<? super Integer> child) {
+                IntSubscriber boxing = new IntSubscriber() {
+                    @Override
+                    public void onNext(int value) {
+                        child.onNext(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        child.onError(e);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        child.onCompleted();
+                    }
+                };
+                child.add(boxing);
+                unsafeSubscribe(boxing);
+            }
+        });
+    }
+
+    public IntObservable lift(final Operator operator) {
+        return create(new OnSubscribe() {
+            @Override
+            public void call(IntSubscriber child) {
+                IntSubscriber parent;
+                try {
+                    parent = operator.call(child);
+                } catch (Throwable e) {
+                    child.onError(e);
+                    return;
+                }
+                onSubscribe.call(parent);
+            }
+        });
+    }
+
+    public IntObservable map(final IntFunc1 func) {
+        return lift(new Operator() {
+            @Override
+            public IntSubscriber call(final IntSubscriber child) {
+                return new ForwardingSubscriber(child) {
+                    @Override
+                    public void onNext(int value) {
+                        int result;
+                        try {
+                            result = func.call(value);
+                        } catch (Throwable e) {
+                            onError(e);
+                            return;
+                        }
+                        child.onNext(result);
+                    }
+                };
+            }
+        });
+    }
+
+    public IntObservable filter(final IntPredicate predicate) {
+        return lift(new Operator() {
+            @Override
+            public IntSubscriber call(final IntSubscriber child) {
+                return new ForwardingSubscriber(child) {
+                    @Override
+                    public void onNext(int value) {
+                        boolean accepted;
+                        try {
+                            accepted = predicate.call(value);
+                        } catch (Throwable e) {
+                            onError(e);
+                            return;
+                        }
+                        if (accepted) {
+                            child.onNext(value);
+                        }
+                    }
+                };
+            }
+        });
+    }
+
+    public IntObservable doOnNext(final IntAction1 action) {
+        return lift(new Operator() {
+            @Override
+            public IntSubscriber call(final IntSubscriber child) {
+                return new ForwardingSubscriber(child) {
+                    @Override
+                    public void onNext(int value) {
+                        try {
+                            action.call(value);
+                        } catch (Throwable e) {
+                            onError(e);
+                            return;
+                        }
+                        child.onNext(value);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Emits running accumulation, starting with the first value, just like {@code Observable.scan(Func2)}.
+     */
+    public IntObservable scan(final IntFunc2 accumulator) {
+        return lift(new Operator() {
+            @Override
+            public IntSubscriber call(final IntSubscriber child) {
+                return new ForwardingSubscriber(child) {
+                    private boolean first = true;
+                    private int current;
+
+                    @Override
+                    public void onNext(int value) {
+                        if (first) {
+                            first = false;
+                            current = value;
+                        } else {
+                            try {
+                                current = accumulator.call(current, value);
+                            } catch (Throwable e) {
+                                onError(e);
+                                return;
+                            }
+                        }
+                        child.onNext(current);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Emits the initial value followed by running accumulation, just like {@code Observable.scan(R, Func2)}.
+     */
+    public IntObservable scan(final int initialValue, final IntFunc2 accumulator) {
+        return lift(new Operator() {
+            @Override
+            public IntSubscriber call(final IntSubscriber child) {
+                child.onNext(initialValue);
+                return new ForwardingSubscriber(child) {
+                    private int current = initialValue;
+
+                    @Override
+                    public void onNext(int value) {
+                        try {
+                            current = accumulator.call(current, value);
+                        } catch (Throwable e) {
+                            onError(e);
+                            return;
+                        }
+                        child.onNext(current);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Emits the last {@code count} values when the source completes, like {@code Observable.takeLast(int)}.
+     * They are kept in an {@code int[]} of exactly {@code count} slots, so memory stays constant however long
+     * the stream is.
+     */
+    public IntObservable takeLast(int count) {
+        return lift(TakeLast.lastOfPrimitiveInts(count));
+    }
+
+    /**
+     * Subscribes to this observable on a worker of the given scheduler.
+     */
+    public IntObservable subscribeOn(final Scheduler scheduler) {
+        return create(new OnSubscribe() {
+            @Override
+            public void call(final IntSubscriber subscriber) {
+                Scheduler.Worker worker = scheduler.createWorker();
+                subscriber.add(worker);
+                worker.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        onSubscribe.call(subscriber);
+                    }
+                });
+            }
+        });
+    }
+
+    public Subscription subscribe(final IntAction1 onNext) {
+        return subscribe(new IntObserver() {
+            @Override
+            public void onNext(int value) {
+                onNext.call(value);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                throw new OnErrorNotImplementedException(e);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+    }
+
+    /**
+     * Subscribes guarding the observer: at most one terminal event, unsubscribed once it's delivered.
+     */
+    public Subscription subscribe(IntObserver observer) {
+        SafeIntSubscriber subscriber = new SafeIntSubscriber(observer);
+        try {
+            onSubscribe.call(subscriber);
+        } catch (OnErrorNotImplementedException e) {
+            throw e;
+        } catch (Throwable e) {
+            subscriber.onError(e);
+        }
+        return subscriber;
+    }
+
+    /**
+     * Subscribes without any guarding, for operators that already provide it.
+     */
+    public Subscription unsafeSubscribe(IntSubscriber subscriber) {
+        onSubscribe.call(subscriber);
+        return subscriber;
+    }
+
+    private static class ForwardingSubscriber extends IntSubscriber {
+        private final IntSubscriber child;
+
+        ForwardingSubscriber(IntSubscriber child) {
+            super(child);
+            this.child = child;
+        }
+
+        @Override
+        public void onNext(int value) {
+            child.onNext(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            child.onError(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            child.onCompleted();
+        }
+    }
+
+    private static class SafeIntSubscriber extends IntSubscriber {
+        private final IntObserver actual;
+        private boolean done;
+
+        SafeIntSubscriber(IntObserver actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onNext(int value) {
+            if (done) {
+                return;
+            }
+            try {
+                actual.onNext(value);
+            } catch (Throwable e) {
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                actual.onError(e);
+            } finally {
+                unsubscribe();
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                actual.onCompleted();
+            } finally {
+                unsubscribe();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.iluu.rx.examples.primitive;
+
+/**
+ * Unboxed counterpart of {@code Observer<Integer>}.
+ */
+public interface IntObserver {
+    void onNext(int value);
+
+    void onError(Throwable e);
+
+    void onCompleted();
+}
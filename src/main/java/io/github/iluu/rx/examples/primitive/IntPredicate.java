@@ -0,0 +1,8 @@
+package io.github.iluu.rx.examples.primitive;
+
+/**
+ * Unboxed counterpart of {@code Func1<Integer, Boolean>}.
+ */
+public interface IntPredicate {
+    boolean call(int value);
+}
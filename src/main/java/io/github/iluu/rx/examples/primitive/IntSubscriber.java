@@ -0,0 +1,34 @@
+package io.github.iluu.rx.examples.primitive;
+
+import rx.Subscription;
+import rx.subscriptions.CompositeSubscription;
+
+/**
+ * {@link IntObserver} that can be unsubscribed. Like {@code rx.Subscriber}, operators chain
+ * subscribers sharing one subscription list so unsubscribing downstream stops the source.
+ */
+public abstract class IntSubscriber implements IntObserver, Subscription {
+    private final CompositeSubscription subscriptions;
+
+    protected IntSubscriber() {
+        this.subscriptions = new CompositeSubscription();
+    }
+
+    protected IntSubscriber(IntSubscriber op) {
+        this.subscriptions = op.subscriptions;
+    }
+
+    public final void add(Subscription s) {
+        subscriptions.add(s);
+    }
+
+    @Override
+    public final void unsubscribe() {
+        subscriptions.unsubscribe();
+    }
+
+    @Override
+    public final boolean isUnsubscribed() {
+        return subscriptions.isUnsubscribed();
+    }
+}
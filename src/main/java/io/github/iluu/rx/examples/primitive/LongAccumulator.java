@@ -0,0 +1,8 @@
+package io.github.iluu.rx.examples.primitive;
+
+/**
+ * Folds a value into a primitive long accumulator.
+ */
+public interface LongAccumulator<T> {
+    long call(long accumulator, T value);
+}
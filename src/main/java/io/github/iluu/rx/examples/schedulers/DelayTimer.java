@@ -0,0 +1,73 @@
+package io.github.iluu.rx.examples.schedulers;
+
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.MultipleAssignmentSubscription;
+import rx.subscriptions.Subscriptions;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer thread shared by the schedulers of this package. It only waits out the delay of an action and then
+ * hands it to its worker, which runs it.
+ */
+final class DelayTimer {
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "DelayTimer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    static {
+        // a cancelled wait would otherwise stay queued until it is due
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private DelayTimer() {
+    }
+
+    /**
+     * Calls {@code enqueue} after the delay. The wait is tracked in {@code pending}, normally one per worker, so
+     * that unsubscribing the worker cancels it; unsubscribing the returned subscription cancels just this one.
+     */
+    static Subscription schedule(final Runnable enqueue, long delayTime, TimeUnit unit,
+                                 final CompositeSubscription pending) {
+        final MultipleAssignmentSubscription wait = new MultipleAssignmentSubscription();
+        pending.add(wait);
+        final Future<?> future = TIMER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                pending.remove(wait);
+                enqueue.run();
+            }
+        }, delayTime, unit);
+        wait.set(Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                future.cancel(false);
+            }
+        }));
+        return Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                pending.remove(wait);
+            }
+        });
+    }
+
+    /**
+     * Waits not yet due nor cancelled.
+     */
+    static int pendingCount() {
+        return TIMER.getQueue().size();
+    }
+}
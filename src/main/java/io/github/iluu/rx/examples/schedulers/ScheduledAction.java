@@ -0,0 +1,42 @@
+package io.github.iluu.rx.examples.schedulers;
+
+import rx.Subscription;
+import rx.functions.Action0;
+
+/**
+ * Action queued on a worker of this package. It is skipped if it or its worker is unsubscribed before its turn,
+ * and what it throws goes to the uncaught exception handler of the thread running it.
+ */
+final class ScheduledAction implements Runnable, Subscription {
+    private final Action0 action;
+    private final Subscription worker;
+    private volatile boolean cancelled;
+
+    ScheduledAction(Action0 action, Subscription worker) {
+        this.action = action;
+        this.worker = worker;
+    }
+
+    @Override
+    public void run() {
+        if (cancelled || worker.isUnsubscribed()) {
+            return;
+        }
+        try {
+            action.call();
+        } catch (Throwable e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    @Override
+    public void unsubscribe() {
+        cancelled = true;
+    }
+
+    @Override
+    public boolean isUnsubscribed() {
+        return cancelled;
+    }
+}
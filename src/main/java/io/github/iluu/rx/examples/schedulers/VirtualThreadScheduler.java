@@ -0,0 +1,125 @@
+package io.github.iluu.rx.examples.schedulers;
+
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler giving every worker its own thread, by default a virtual one. Unlike
+ * {@code Schedulers.computation()} blocking inside a worker parks only that lightweight thread,
+ * so thousands of subscriptions doing blocking I/O don't stall a fixed pool of cores.
+ * <p/>
+ * Virtual threads need a Java 21 runtime; they are looked up reflectively so the project still builds
+ * for older targets. Delayed actions wait on a shared timer thread and then run on their worker.
+ */
+public class VirtualThreadScheduler extends Scheduler {
+
+    private static final ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+
+    private final ThreadFactory threadFactory;
+
+    /**
+     * @param threadFactory creates the thread of each worker
+     */
+    public VirtualThreadScheduler(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * @throws UnsupportedOperationException when the runtime has no virtual threads
+     */
+    public static VirtualThreadScheduler create() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or newer");
+        }
+        return new VirtualThreadScheduler(VIRTUAL_THREADS);
+    }
+
+    public static boolean isSupported() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(ofVirtual.invoke(null));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new ThreadWorker(threadFactory);
+    }
+
+    private static final class ThreadWorker extends Worker {
+        private final ExecutorService executor;
+        private final CompositeSubscription delayed = new CompositeSubscription();
+        private volatile boolean unsubscribed;
+
+        ThreadWorker(ThreadFactory threadFactory) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(), threadFactory);
+        }
+
+        @Override
+        public Subscription schedule(Action0 action) {
+            if (unsubscribed) {
+                return Subscriptions.empty();
+            }
+            ScheduledAction task = new ScheduledAction(action, this);
+            submit(task);
+            return task;
+        }
+
+        @Override
+        public Subscription schedule(Action0 action, long delayTime, TimeUnit unit) {
+            if (delayTime <= 0) {
+                return schedule(action);
+            }
+            if (unsubscribed) {
+                return Subscriptions.empty();
+            }
+            final ScheduledAction task = new ScheduledAction(action, this);
+            Subscription wait = DelayTimer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    submit(task);
+                }
+            }, delayTime, unit, delayed);
+            return Subscriptions.from(task, wait);
+        }
+
+        private void submit(ScheduledAction task) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // worker was unsubscribed meanwhile
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            unsubscribed = true;
+            delayed.unsubscribe();
+            executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.iluu.rx.examples.schedulers;
+
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computation scheduler on a work-stealing {@link ForkJoinPool}. With {@code Schedulers.computation()} each
+ * worker is pinned to one event loop, so a few expensive subscriptions can keep some cores busy while others
+ * idle; here idle pool threads steal queued work from busy ones.
+ * <p/>
+ * A worker still runs its actions one at a time and in order, queueing them and draining the queue in a task
+ * on the pool. Scheduling from a pool thread pushes that task onto the thread's own deque, so a subscription
+ * stays on the thread it runs on unless another one is idle. Scheduling onto an idle worker from a pool thread
+ * runs the action right away on the caller's stack, saving the hop, up to {@code maxInlineDepth} nested
+ * workers; an action scheduled on the worker that is running is trampolined, run by its drain loop once the
+ * current one returns.
+ */
+public class WorkStealingScheduler extends Scheduler {
+
+    /**
+     * Actions a drain runs before it lets other tasks of its thread go first.
+     */
+    private static final int BATCH = 64;
+    private static final int DEFAULT_INLINE_DEPTH = 8;
+
+    private final ForkJoinPool pool;
+    private final int maxInlineDepth;
+
+    /**
+     * @param maxInlineDepth how many workers may run nested on one stack, 0 to always go through the pool
+     */
+    public WorkStealingScheduler(int parallelism, int maxInlineDepth) {
+        if (maxInlineDepth < 0) {
+            throw new IllegalArgumentException("Inline depth must not be negative");
+        }
+        this.pool = new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                return new PoolThread(pool);
+            }
+        }, null, true);
+        this.maxInlineDepth = maxInlineDepth;
+    }
+
+    /**
+     * A thread per core, inlining enabled.
+     */
+    public static WorkStealingScheduler create() {
+        return new WorkStealingScheduler(Runtime.getRuntime().availableProcessors(), DEFAULT_INLINE_DEPTH);
+    }
+
+    /**
+     * Instance shared by everyone asking, created on first use.
+     */
+    public static WorkStealingScheduler getDefault() {
+        return DefaultScheduler.INSTANCE;
+    }
+
+    private static final class DefaultScheduler {
+        static final WorkStealingScheduler INSTANCE = create();
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new StealingWorker();
+    }
+
+    /**
+     * Tasks taken from another thread's deque so far, an estimate.
+     */
+    public long getStealCount() {
+        return pool.getStealCount();
+    }
+
+    /**
+     * Stops the pool threads once the queued work is done.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private PoolThread currentPoolThread() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof PoolThread && ((PoolThread) thread).getPool() == pool) {
+            return (PoolThread) thread;
+        }
+        return null;
+    }
+
+    private static final class PoolThread extends ForkJoinWorkerThread {
+        /* workers running nested on this thread's stack */
+        int inlineDepth;
+
+        PoolThread(ForkJoinPool pool) {
+            super(pool);
+            setName("WorkStealingScheduler-" + getPoolIndex());
+        }
+    }
+
+    private final class StealingWorker extends Worker {
+        private final Queue<ScheduledAction> queue = new ConcurrentLinkedQueue<ScheduledAction>();
+        /* actions queued or running and not yet accounted for by a drain, 0 when no drain is scheduled */
+        private final AtomicInteger wip = new AtomicInteger();
+        private final CompositeSubscription delayed = new CompositeSubscription();
+        private volatile boolean unsubscribed;
+
+        @Override
+        public Subscription schedule(Action0 action) {
+            if (unsubscribed) {
+                return Subscriptions.empty();
+            }
+            ScheduledAction scheduled = new ScheduledAction(action, this);
+            PoolThread thread = currentPoolThread();
+            if (thread != null && thread.inlineDepth < maxInlineDepth && wip.get() == 0 && wip.compareAndSet(0, 1)) {
+                thread.inlineDepth++;
+                try {
+                    scheduled.run();
+                } finally {
+                    thread.inlineDepth--;
+                }
+                if (wip.decrementAndGet() != 0) {
+                    new Drain().fork();
+                }
+                return scheduled;
+            }
+            enqueue(scheduled, thread != null);
+            return scheduled;
+        }
+
+        @Override
+        public Subscription schedule(Action0 action, long delayTime, TimeUnit unit) {
+            if (delayTime <= 0) {
+                return schedule(action);
+            }
+            if (unsubscribed) {
+                return Subscriptions.empty();
+            }
+            final ScheduledAction scheduled = new ScheduledAction(action, this);
+            Subscription wait = DelayTimer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    enqueue(scheduled, false);
+                }
+            }, delayTime, unit, delayed);
+            return Subscriptions.from(scheduled, wait);
+        }
+
+        private void enqueue(ScheduledAction scheduled, boolean onPoolThread) {
+            queue.offer(scheduled);
+            if (wip.getAndIncrement() == 0) {
+                if (onPoolThread) {
+                    new Drain().fork();
+                } else {
+                    pool.execute(new Drain());
+                }
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            unsubscribed = true;
+            delayed.unsubscribe();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
+
+        /**
+         * Runs queued actions; after a batch, with more queued, forks a new drain behind the thread's other tasks.
+         */
+        private final class Drain extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                // an action is counted after it is queued, so one polled here may not be counted yet; the
+                // count is only lowered by what was counted before the queue was seen empty
+                int missed = wip.get();
+                for (; ; ) {
+                    int ran = 0;
+                    ScheduledAction next;
+                    while ((next = queue.poll()) != null) {
+                        next.run();
+                        if (++ran == BATCH) {
+                            new Drain().fork();
+                            return;
+                        }
+                    }
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package io.github.iluu.rx.examples.sources;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.subscriptions.Subscriptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel {@code all}, {@code exists} and {@code filter} over an in-memory list, for sources large enough
+ * that evaluating the predicate one element at a time on one thread is the bottleneck.
+ * <pre>
+ * ForkJoinPredicates.exists(orders, isFraudulent)
+ * </pre>
+ * The list is split into chunks evaluated as fork/join tasks while the subscribing thread waits, like
+ * {@code Observable.from(list)} emits on it. {@code all} and {@code exists} stop every worker as soon as one
+ * chunk decides the answer; chunks not started yet are skipped and running ones stop within
+ * {@link #CHECK_EVERY} elements. {@code filter} emits the accepted elements in list order. An error of the
+ * predicate stops the other workers as well, and unsubscribing stops them while they run.
+ * <p/>
+ * The list must not change while being evaluated; lists without random access are copied first.
+ */
+public final class ForkJoinPredicates {
+
+    /**
+     * Elements a worker evaluates between checks whether it should stop.
+     */
+    public static final int CHECK_EVERY = 256;
+
+    private static final int MIN_CHUNK = 1024;
+
+    private ForkJoinPredicates() {
+    }
+
+    private static final class DefaultPool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool();
+    }
+
+    public static <T> Observable<Boolean> all(List<? extends T> source, Func1<? super T, Boolean> predicate) {
+        return all(source, predicate, DefaultPool.INSTANCE);
+    }
+
+    /**
+     * Emits whether every element satisfies the predicate, true for an empty list.
+     */
+    public static <T> Observable<Boolean> all(List<? extends T> source, Func1<? super T, Boolean> predicate,
+                                              ForkJoinPool pool) {
+        return decide(source, predicate, pool, false);
+    }
+
+    public static <T> Observable<Boolean> exists(List<? extends T> source, Func1<? super T, Boolean> predicate) {
+        return exists(source, predicate, DefaultPool.INSTANCE);
+    }
+
+    /**
+     * Emits whether any element satisfies the predicate, false for an empty list.
+     */
+    public static <T> Observable<Boolean> exists(List<? extends T> source, Func1<? super T, Boolean> predicate,
+                                                 ForkJoinPool pool) {
+        return decide(source, predicate, pool, true);
+    }
+
+    public static <T> Observable<T> filter(List<? extends T> source, Func1<? super T, Boolean> predicate) {
+        return filter(source, predicate, DefaultPool.INSTANCE);
+    }
+
+    public static <T> Observable<T> filter(final List<? extends T> source, final Func1<? super T, Boolean> predicate,
+                                           final ForkJoinPool pool) {
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void call(Subscriber<? super T> child) {
+                List<? extends T> list = randomAccess(source);
+                Job<T> job = new Job<T>(list, predicate, pool.getParallelism());
+                final Object[][] accepted = new Object[job.chunks][];
+                final int[] counts = new int[job.chunks];
+                if (!job.run(child, pool, new ChunkEvaluator<T>() {
+                    @Override
+                    public boolean evaluate(Job<T> job, int chunk, int from, int to) {
+                        Object[] values = new Object[to - from];
+                        int count = 0;
+                        for (int i = from; i < to; i++) {
+                            if ((i - from) % CHECK_EVERY == 0 && job.stop.get()) {
+                                return true;
+                            }
+                            T value = job.list.get(i);
+                            if (job.predicate.call(value)) {
+                                values[count++] = value;
+                            }
+                        }
+                        accepted[chunk] = values;
+                        counts[chunk] = count;
+                        return false;
+                    }
+                })) {
+                    return;
+                }
+                for (int chunk = 0; chunk < accepted.length; chunk++) {
+                    Object[] values = accepted[chunk];
+                    for (int i = 0; i < counts[chunk]; i++) {
+                        if (child.isUnsubscribed()) {
+                            return;
+                        }
+                        child.onNext((T) values[i]);
+                    }
+                }
+                child.onCompleted();
+            }
+        });
+    }
+
+    /**
+     * Looks for an element whose predicate result equals {@code decisive}, which settles the answer.
+     */
+    private static <T> Observable<Boolean> decide(final List<? extends T> source,
+                                                  final Func1<? super T, Boolean> predicate,
+                                                  final ForkJoinPool pool, final boolean decisive) {
+        return Observable.create(new Observable.OnSubscribe<Boolean>() {
+            @Override
+            public void call(Subscriber<? super Boolean> child) {
+                final AtomicBoolean found = new AtomicBoolean();
+                Job<T> job = new Job<T>(randomAccess(source), predicate, pool.getParallelism());
+                if (!job.run(child, pool, new ChunkEvaluator<T>() {
+                    @Override
+                    public boolean evaluate(Job<T> job, int chunk, int from, int to) {
+                        for (int i = from; i < to; i++) {
+                            if ((i - from) % CHECK_EVERY == 0 && job.stop.get()) {
+                                return true;
+                            }
+                            if (job.predicate.call(job.list.get(i)) == decisive) {
+                                found.set(true);
+                                return true;
+                            }
+                        }
+                        return false;
+                    }
+                })) {
+                    return;
+                }
+                child.onNext(found.get() == decisive);
+                child.onCompleted();
+            }
+        });
+    }
+
+    private static <T> List<? extends T> randomAccess(List<? extends T> source) {
+        return source instanceof RandomAccess ? source : new ArrayList<T>(source);
+    }
+
+    private interface ChunkEvaluator<T> {
+        /**
+         * @return true when all workers should stop
+         */
+        boolean evaluate(Job<T> job, int chunk, int from, int to);
+    }
+
+    /**
+     * One evaluation: the list split into chunks and the flag every worker checks to stop early.
+     */
+    private static final class Job<T> {
+        final List<? extends T> list;
+        final Func1<? super T, Boolean> predicate;
+        final int chunkSize;
+        final int chunks;
+        final AtomicBoolean stop = new AtomicBoolean();
+        /* first exception of a worker, as the pool rethrows a copy of it in the waiting thread */
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        Job(List<? extends T> list, Func1<? super T, Boolean> predicate, int parallelism) {
+            this.list = list;
+            this.predicate = predicate;
+            // a few chunks per worker, so one slow chunk doesn't leave the others idle
+            this.chunkSize = Math.max(MIN_CHUNK, list.size() / (parallelism * 4) + 1);
+            this.chunks = (list.size() + chunkSize - 1) / chunkSize;
+        }
+
+        /**
+         * Evaluates every chunk on the pool, waiting for them.
+         *
+         * @return false if the child has been given an error or unsubscribed and must get nothing more
+         */
+        boolean run(Subscriber<?> child, ForkJoinPool pool, ChunkEvaluator<T> evaluator) {
+            child.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    stop.set(true);
+                }
+            }));
+            try {
+                if (chunks > 0) {
+                    pool.invoke(new ChunkTask<T>(this, evaluator, 0, chunks));
+                }
+            } catch (Throwable e) {
+                Throwable original = error.get();
+                child.onError(original != null ? original : e);
+                return false;
+            }
+            return !child.isUnsubscribed();
+        }
+    }
+
+    /**
+     * Splits a range of chunks in halves until one is left, forking the right half.
+     */
+    private static final class ChunkTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Job<T> job;
+        private final ChunkEvaluator<T> evaluator;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ChunkTask(Job<T> job, ChunkEvaluator<T> evaluator, int fromChunk, int toChunk) {
+            this.job = job;
+            this.evaluator = evaluator;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (job.stop.get()) {
+                return;
+            }
+            if (toChunk - fromChunk > 1) {
+                int middle = (fromChunk + toChunk) >>> 1;
+                ChunkTask<T> right = new ChunkTask<T>(job, evaluator, middle, toChunk);
+                right.fork();
+                new ChunkTask<T>(job, evaluator, fromChunk, middle).compute();
+                right.join();
+                return;
+            }
+            int from = fromChunk * job.chunkSize;
+            int to = Math.min(from + job.chunkSize, job.list.size());
+            try {
+                if (evaluator.evaluate(job, fromChunk, from, to)) {
+                    job.stop.set(true);
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+                throw e;
+            } catch (Error e) {
+                fail(e);
+                throw e;
+            }
+        }
+
+        private void fail(Throwable e) {
+            job.error.compareAndSet(null, e);
+            job.stop.set(true);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.iluu.rx.examples.sources;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source emitting {@code generator.call(index)} for each index of a (possibly longer than int) range,
+ * only as fast as the subscriber requests. Nothing is buffered: values are produced on demand.
+ */
+public class OnSubscribeGenerate<T> implements Observable.OnSubscribe<T> {
+
+    public interface Generator<T> {
+        T call(long index);
+    }
+
+    private static final Generator<Long> INDEX = new Generator<Long>() {
+        @Override
+        public Long call(long index) {
+            return index;
+        }
+    };
+
+    private final long start;
+    private final long count;
+    private final Generator<T> generator;
+
+    public OnSubscribeGenerate(long start, long count, Generator<T> generator) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count can not be negative");
+        }
+        this.start = start;
+        this.count = count;
+        this.generator = generator;
+    }
+
+    /**
+     * Emits {@code count} sequential longs starting at {@code start}.
+     */
+    public static Observable<Long> range(long start, long count) {
+        return Observable.create(new OnSubscribeGenerate<Long>(start, count, INDEX));
+    }
+
+    public static <T> Observable<T> generate(long count, Generator<T> generator) {
+        return Observable.create(new OnSubscribeGenerate<T>(0, count, generator));
+    }
+
+    @Override
+    public void call(Subscriber<? super T> child) {
+        child.setProducer(new GenerateProducer<T>(child, start, start + count, generator));
+    }
+
+    private static final class GenerateProducer<T> implements Producer {
+        private final Subscriber<? super T> child;
+        private final long end;
+        private final Generator<T> generator;
+        private final AtomicLong requested = new AtomicLong();
+        /* only touched by the thread that moved requested off zero */
+        private long index;
+
+        GenerateProducer(Subscriber<? super T> child, long start, long end, Generator<T> generator) {
+            this.child = child;
+            this.index = start;
+            this.end = end;
+            this.generator = generator;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    if (current == 0) {
+                        emit(next);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void emit(long demand) {
+            long r = demand;
+            for (; ; ) {
+                long emitted = 0;
+                while ((emitted != r || r == Long.MAX_VALUE) && index != end) {
+                    if (child.isUnsubscribed()) {
+                        return;
+                    }
+                    T value;
+                    try {
+                        value = generator.call(index);
+                    } catch (Throwable e) {
+                        child.onError(e);
+                        return;
+                    }
+                    index++;
+                    child.onNext(value);
+                    emitted++;
+                }
+                if (index == end) {
+                    if (!child.isUnsubscribed()) {
+                        child.onCompleted();
+                    }
+                    return;
+                }
+                r = requested.addAndGet(-emitted);
+                if (r == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package io.github.iluu.rx.examples.sources;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.subscriptions.Subscriptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source reading a file through memory mapping and emitting its records as {@code ByteBuffer} views of the
+ * mapping, without copying the bytes. Records are either lines (without the line terminator) or fixed-size
+ * blocks, the last of which may be shorter.
+ * <p/>
+ * The file is mapped one region at a time, so files over 2 GB work and only the regions being read take up
+ * address space. A line has to fit into a region. Records are produced only as fast as the subscriber
+ * requests them. Views stay readable after the subscription ends, but see the file as it is now: changing
+ * the file while its records are in use changes them too.
+ */
+public class OnSubscribeMappedFile implements Observable.OnSubscribe<ByteBuffer> {
+
+    static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+    private static final int LINES = 0;
+
+    private final File file;
+    private final int recordSize;
+    private final int regionSize;
+
+    private OnSubscribeMappedFile(File file, int recordSize, int regionSize) {
+        this.file = file;
+        this.recordSize = recordSize;
+        this.regionSize = regionSize;
+    }
+
+    public static Observable<ByteBuffer> lines(File file) {
+        return lines(file, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param regionSize bytes mapped at once, also the longest line supported
+     */
+    public static Observable<ByteBuffer> lines(File file, int regionSize) {
+        if (regionSize < 1) {
+            throw new IllegalArgumentException("Region size must be positive");
+        }
+        return Observable.create(new OnSubscribeMappedFile(file, LINES, regionSize));
+    }
+
+    public static Observable<ByteBuffer> records(File file, int recordSize) {
+        return records(file, recordSize, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param regionSize bytes mapped at once, rounded down to whole records
+     */
+    public static Observable<ByteBuffer> records(File file, int recordSize, int regionSize) {
+        if (recordSize < 1) {
+            throw new IllegalArgumentException("Record size must be positive");
+        }
+        if (regionSize < recordSize) {
+            throw new IllegalArgumentException("Region can not be smaller than a record");
+        }
+        return Observable.create(new OnSubscribeMappedFile(file, recordSize, regionSize / recordSize * recordSize));
+    }
+
+    /**
+     * Decodes a record, e.g. {@code lines(file).map(decode(UTF_8))}. Unlike the record itself the string is a copy.
+     */
+    public static Func1<ByteBuffer, String> decode(final Charset charset) {
+        return new Func1<ByteBuffer, String>() {
+            @Override
+            public String call(ByteBuffer record) {
+                // String's own decoding is much faster than going through a CharBuffer
+                byte[] bytes = new byte[record.remaining()];
+                record.duplicate().get(bytes);
+                return new String(bytes, charset);
+            }
+        };
+    }
+
+    @Override
+    public void call(Subscriber<? super ByteBuffer> child) {
+        FileChannel opened = null;
+        final long size;
+        try {
+            opened = new RandomAccessFile(file, "r").getChannel();
+            size = opened.size();
+        } catch (IOException e) {
+            if (opened != null) {
+                // closes the file as well
+                close(opened);
+            }
+            child.onError(e);
+            return;
+        }
+        final FileChannel channel = opened;
+        child.add(Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                close(channel);
+            }
+        }));
+        child.setProducer(new MappedFileProducer(child, channel, size, recordSize, regionSize));
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to read from it anyway
+        }
+    }
+
+    private static final class MappedFileProducer implements Producer {
+        private final Subscriber<? super ByteBuffer> child;
+        private final FileChannel channel;
+        private final long size;
+        private final int recordSize;
+        private final int regionSize;
+        private final AtomicLong requested = new AtomicLong();
+
+        /* only touched by the thread that moved requested off zero */
+        private MappedByteBuffer region;
+        private long regionStart;
+        private long position;
+
+        MappedFileProducer(Subscriber<? super ByteBuffer> child, FileChannel channel, long size,
+                           int recordSize, int regionSize) {
+            this.child = child;
+            this.channel = channel;
+            this.size = size;
+            this.recordSize = recordSize;
+            this.regionSize = regionSize;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    if (current == 0) {
+                        emit(next);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void emit(long demand) {
+            long r = demand;
+            for (; ; ) {
+                long emitted = 0;
+                while ((emitted != r || r == Long.MAX_VALUE) && position != size) {
+                    if (child.isUnsubscribed()) {
+                        return;
+                    }
+                    ByteBuffer record;
+                    try {
+                        record = next();
+                    } catch (Throwable e) {
+                        close(channel);
+                        child.onError(e);
+                        return;
+                    }
+                    child.onNext(record);
+                    emitted++;
+                }
+                if (position == size) {
+                    close(channel);
+                    if (!child.isUnsubscribed()) {
+                        child.onCompleted();
+                    }
+                    return;
+                }
+                r = requested.addAndGet(-emitted);
+                if (r == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * View of the record at {@code position}, mapping the next region when the record isn't in the current one.
+         */
+        private ByteBuffer next() throws IOException {
+            if (region == null || position >= regionStart + region.capacity()) {
+                map(position);
+            }
+            int from = (int) (position - regionStart);
+            int limit = region.capacity();
+            boolean lastRegion = regionStart + limit == size;
+            int end;
+            int nextFrom;
+            if (recordSize != LINES) {
+                end = Math.min(from + recordSize, limit);
+                nextFrom = end;
+            } else {
+                int newline = indexOfNewline(from, limit);
+                if (newline < 0 && !lastRegion) {
+                    if (from == 0) {
+                        throw new IllegalStateException("Line at " + position + " is longer than region of "
+                                + regionSize + " bytes");
+                    }
+                    // line continues past the region, map again starting with it
+                    map(position);
+                    return next();
+                }
+                nextFrom = newline < 0 ? limit : newline + 1;
+                end = newline < 0 ? limit : newline;
+                if (end > from && region.get(end - 1) == '\r') {
+                    end--;
+                }
+            }
+            position = regionStart + nextFrom;
+            ByteBuffer view = region.duplicate();
+            view.limit(end).position(from);
+            return view.slice();
+        }
+
+        private int indexOfNewline(int from, int limit) {
+            for (int i = from; i < limit; i++) {
+                if (region.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void map(long start) throws IOException {
+            regionStart = start;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+        }
+    }
+}
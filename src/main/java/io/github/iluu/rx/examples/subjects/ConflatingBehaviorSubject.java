@@ -0,0 +1,253 @@
+package io.github.iluu.rx.examples.subjects;
+
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subjects.Subject;
+import rx.subscriptions.Subscriptions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@code BehaviorSubject} for high-frequency state feeds (prices, gauges) observed on other threads.
+ * <p/>
+ * Every subscriber is served on its own worker of the given scheduler through a single atomic slot instead
+ * of a queue. A newer value replaces a pending older one, so a slow subscriber gets only the latest value once
+ * it's ready again and memory per subscriber stays constant however fast the producer is.
+ * The terminal event is delivered after the last pending value.
+ */
+public final class ConflatingBehaviorSubject<T> extends Subject<T, T> {
+
+    private final State<T> state;
+
+    private ConflatingBehaviorSubject(OnSubscribe<T> onSubscribe, State<T> state) {
+        super(onSubscribe);
+        this.state = state;
+    }
+
+    public static <T> ConflatingBehaviorSubject<T> create(Scheduler scheduler) {
+        return create(new State<T>(scheduler, null));
+    }
+
+    /**
+     * @param defaultValue emitted to subscribers until the first onNext
+     */
+    public static <T> ConflatingBehaviorSubject<T> create(Scheduler scheduler, T defaultValue) {
+        return create(new State<T>(scheduler, new Entry(0, defaultValue)));
+    }
+
+    private static <T> ConflatingBehaviorSubject<T> create(final State<T> state) {
+        return new ConflatingBehaviorSubject<T>(new OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> child) {
+                state.add(child);
+            }
+        }, state);
+    }
+
+    @Override
+    public void onNext(T value) {
+        if (state.terminal.get() != null) {
+            return;
+        }
+        Entry previous = state.latest;
+        Entry entry = new Entry(previous == null ? 1 : previous.version + 1, value);
+        state.latest = entry;
+        for (Conflater<T> conflater : state.conflaters.get()) {
+            conflater.offer(entry);
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        terminate(new Terminal(e));
+    }
+
+    @Override
+    public void onCompleted() {
+        terminate(new Terminal(null));
+    }
+
+    private void terminate(Terminal terminal) {
+        if (!state.terminal.compareAndSet(null, terminal)) {
+            return;
+        }
+        for (Conflater<T> conflater : state.conflaters.getAndSet(State.<T>conflaters(State.TERMINATED))) {
+            conflater.terminate(terminal);
+        }
+    }
+
+    /**
+     * Value with the position it had in the stream, so a subscriber never goes back to an older one.
+     */
+    private static final class Entry {
+        final long version;
+        final Object value;
+
+        Entry(long version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+
+    private static final class Terminal {
+        final Throwable error;
+
+        Terminal(Throwable error) {
+            this.error = error;
+        }
+
+        void emit(Subscriber<?> child) {
+            if (error != null) {
+                child.onError(error);
+            } else {
+                child.onCompleted();
+            }
+        }
+    }
+
+    private static final class State<T> {
+        static final Conflater<?>[] EMPTY = new Conflater<?>[0];
+        static final Conflater<?>[] TERMINATED = new Conflater<?>[0];
+
+        final Scheduler scheduler;
+        final AtomicReference<Conflater<T>[]> conflaters = new AtomicReference<Conflater<T>[]>(State.<T>conflaters(EMPTY));
+        final AtomicReference<Terminal> terminal = new AtomicReference<Terminal>();
+        volatile Entry latest;
+
+        State(Scheduler scheduler, Entry initial) {
+            this.scheduler = scheduler;
+            this.latest = initial;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Conflater<T>[] conflaters(Conflater<?>[] array) {
+            return (Conflater<T>[]) array;
+        }
+
+        void add(final Subscriber<? super T> child) {
+            final Conflater<T> conflater = new Conflater<T>(child, scheduler.createWorker());
+            for (; ; ) {
+                Conflater<T>[] current = conflaters.get();
+                if (current == TERMINATED) {
+                    conflater.terminate(terminal.get());
+                    return;
+                }
+                Conflater<T>[] next = conflaters(new Conflater<?>[current.length + 1]);
+                System.arraycopy(current, 0, next, 0, current.length);
+                next[current.length] = conflater;
+                if (conflaters.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            child.add(conflater.worker);
+            child.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    remove(conflater);
+                }
+            }));
+            Entry entry = latest;
+            if (entry != null) {
+                conflater.offer(entry);
+            }
+        }
+
+        void remove(Conflater<T> conflater) {
+            for (; ; ) {
+                Conflater<T>[] current = conflaters.get();
+                int index = -1;
+                for (int i = 0; i < current.length; i++) {
+                    if (current[i] == conflater) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    return;
+                }
+                Conflater<T>[] next = conflaters(EMPTY);
+                if (current.length > 1) {
+                    next = conflaters(new Conflater<?>[current.length - 1]);
+                    System.arraycopy(current, 0, next, 0, index);
+                    System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+                }
+                if (conflaters.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Conflater<T> {
+        final Subscriber<? super T> child;
+        final Scheduler.Worker worker;
+        private final AtomicReference<Entry> slot = new AtomicReference<Entry>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile Terminal terminal;
+        /* worker only */
+        private long delivered = -1;
+
+        private final Action0 drain = new Action0() {
+            @Override
+            public void call() {
+                drain();
+            }
+        };
+
+        Conflater(Subscriber<? super T> child, Scheduler.Worker worker) {
+            this.child = child;
+            this.worker = worker;
+        }
+
+        void offer(Entry entry) {
+            for (; ; ) {
+                Entry pending = slot.get();
+                if (pending != null && pending.version >= entry.version) {
+                    break;
+                }
+                if (slot.compareAndSet(pending, entry)) {
+                    break;
+                }
+            }
+            schedule();
+        }
+
+        void terminate(Terminal terminal) {
+            this.terminal = terminal;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(drain);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            int missed = 1;
+            for (; ; ) {
+                if (child.isUnsubscribed()) {
+                    return;
+                }
+                Terminal done = terminal;
+                Entry entry = slot.getAndSet(null);
+                if (entry != null && entry.version > delivered) {
+                    delivered = entry.version;
+                    child.onNext((T) entry.value);
+                }
+                if (done != null && slot.get() == null) {
+                    done.emit(child);
+                    worker.unsubscribe();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package io.github.iluu.rx.examples.subjects;
+
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subjects.Subject;
+import rx.subscriptions.Subscriptions;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Subject with the semantics of {@code PublishSubject} tuned for thousands of subscribers.
+ * <p/>
+ * Subscribers are kept in copy-on-write arrays changed with compare-and-set, so dispatch reads a plain array
+ * and subscribe/unsubscribe never lock. In parallel mode subscribers are spread round-robin over lanes, each
+ * with its own scheduler worker: onNext only queues the value per lane and every lane delivers queued values
+ * to its subscribers in batches. A subscriber always stays on its lane so it sees values in order; it may also
+ * get values that were still queued on its lane when it subscribed. A subscriber whose onNext throws is
+ * unsubscribed and gets the exception as onError, the others carrying on.
+ */
+public final class FanOutSubject<T> extends Subject<T, T> {
+
+    private static final int BATCH = 64;
+    private static final Object NULL = new Object();
+    private static final Object COMPLETED = new Object();
+
+    private final State<T> state;
+
+    private FanOutSubject(OnSubscribe<T> onSubscribe, State<T> state) {
+        super(onSubscribe);
+        this.state = state;
+    }
+
+    /**
+     * Delivers values to all subscribers on the calling thread.
+     */
+    public static <T> FanOutSubject<T> create() {
+        Lane<T>[] lanes = newLanes(1);
+        lanes[0] = new Lane<T>(null);
+        return create(new State<T>(lanes));
+    }
+
+    /**
+     * Delivers values on {@code lanes} workers of the given scheduler, each serving a share of subscribers.
+     */
+    public static <T> FanOutSubject<T> createParallel(Scheduler scheduler, int lanes) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("Number of lanes must be positive");
+        }
+        Lane<T>[] all = newLanes(lanes);
+        for (int i = 0; i < lanes; i++) {
+            all[i] = new Lane<T>(scheduler.createWorker());
+        }
+        return create(new State<T>(all));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Lane<T>[] newLanes(int length) {
+        return (Lane<T>[]) new Lane<?>[length];
+    }
+
+    private static <T> FanOutSubject<T> create(final State<T> state) {
+        return new FanOutSubject<T>(new OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> child) {
+                state.add(child);
+            }
+        }, state);
+    }
+
+    @Override
+    public void onNext(T value) {
+        for (Lane<T> lane : state.lanes) {
+            lane.onNext(value);
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        terminate(new ErrorEvent(e));
+    }
+
+    @Override
+    public void onCompleted() {
+        terminate(COMPLETED);
+    }
+
+    private void terminate(Object event) {
+        if (!state.terminal.compareAndSet(null, event)) {
+            return;
+        }
+        for (Lane<T> lane : state.lanes) {
+            lane.terminate(event);
+        }
+    }
+
+    /**
+     * Number of subscribers currently attached.
+     */
+    public int subscriberCount() {
+        int count = 0;
+        for (Lane<T> lane : state.lanes) {
+            count += lane.subscribers.get().length;
+        }
+        return count;
+    }
+
+    private static final class State<T> {
+        final Lane<T>[] lanes;
+        final AtomicInteger nextLane = new AtomicInteger();
+        final AtomicReference<Object> terminal = new AtomicReference<Object>();
+
+        State(Lane<T>[] lanes) {
+            this.lanes = lanes;
+        }
+
+        void add(final Subscriber<? super T> child) {
+            final Lane<T> lane = lanes[(nextLane.getAndIncrement() & Integer.MAX_VALUE) % lanes.length];
+            if (!lane.add(child)) {
+                emitTerminal(child, terminal.get());
+                return;
+            }
+            child.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    lane.remove(child);
+                }
+            }));
+        }
+    }
+
+    private static final class ErrorEvent {
+        final Throwable error;
+
+        ErrorEvent(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    private static void emitTerminal(Subscriber<?> child, Object event) {
+        if (event instanceof ErrorEvent) {
+            child.onError(((ErrorEvent) event).error);
+        } else {
+            child.onCompleted();
+        }
+    }
+
+    /**
+     * Reports an exception no subscriber can be told about.
+     */
+    private static void uncaught(Throwable e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+    private static final class Lane<T> {
+        private static final Subscriber<?>[] EMPTY = new Subscriber<?>[0];
+        private static final Subscriber<?>[] TERMINATED = new Subscriber<?>[0];
+
+        final AtomicReference<Subscriber<? super T>[]> subscribers =
+                new AtomicReference<Subscriber<? super T>[]>(Lane.<T>subscribers(EMPTY));
+
+        /* parallel mode only */
+        private final Scheduler.Worker worker;
+        private final Queue<Object> queue;
+        private final AtomicInteger wip;
+        private final Action0 drain;
+        private final Object[] batch;
+
+        Lane(Scheduler.Worker worker) {
+            this.worker = worker;
+            if (worker == null) {
+                queue = null;
+                wip = null;
+                drain = null;
+                batch = null;
+            } else {
+                queue = new ConcurrentLinkedQueue<Object>();
+                wip = new AtomicInteger();
+                batch = new Object[BATCH];
+                drain = new Action0() {
+                    @Override
+                    public void call() {
+                        drain();
+                    }
+                };
+            }
+        }
+
+        boolean add(Subscriber<? super T> child) {
+            for (; ; ) {
+                Subscriber<? super T>[] current = subscribers.get();
+                if (current == TERMINATED) {
+                    return false;
+                }
+                Subscriber<? super T>[] next = subscribers(new Subscriber<?>[current.length + 1]);
+                System.arraycopy(current, 0, next, 0, current.length);
+                next[current.length] = child;
+                if (subscribers.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        void remove(Subscriber<? super T> child) {
+            for (; ; ) {
+                Subscriber<? super T>[] current = subscribers.get();
+                int index = -1;
+                for (int i = current.length - 1; i >= 0; i--) {
+                    if (current[i] == child) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    return;
+                }
+                Subscriber<? super T>[] next = subscribers(EMPTY);
+                if (current.length > 1) {
+                    next = subscribers(new Subscriber<?>[current.length - 1]);
+                    System.arraycopy(current, 0, next, 0, index);
+                    System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+                }
+                if (subscribers.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Subscriber<? super T>[] subscribers(Subscriber<?>[] array) {
+            return (Subscriber<? super T>[]) array;
+        }
+
+        void onNext(T value) {
+            if (worker == null) {
+                for (Subscriber<? super T> subscriber : subscribers.get()) {
+                    try {
+                        subscriber.onNext(value);
+                    } catch (Throwable e) {
+                        fail(subscriber, e);
+                    }
+                }
+            } else {
+                queue.offer(value == null ? NULL : value);
+                schedule();
+            }
+        }
+
+        void terminate(Object event) {
+            if (worker == null) {
+                for (Subscriber<? super T> subscriber : subscribers.getAndSet(subscribers(TERMINATED))) {
+                    terminate(subscriber, event);
+                }
+            } else {
+                queue.offer(event);
+                schedule();
+            }
+        }
+
+        /**
+         * Drops a subscriber whose onNext threw, passing it the exception, so it doesn't hold up the others.
+         */
+        private void fail(Subscriber<? super T> subscriber, Throwable e) {
+            remove(subscriber);
+            try {
+                subscriber.onError(e);
+            } catch (Throwable inner) {
+                uncaught(inner);
+            }
+        }
+
+        private static void terminate(Subscriber<?> subscriber, Object event) {
+            try {
+                emitTerminal(subscriber, event);
+            } catch (Throwable e) {
+                uncaught(e);
+            }
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(drain);
+            }
+        }
+
+        /**
+         * Takes up to a batch of queued values and hands the whole batch to one subscriber after another.
+         */
+        private void drain() {
+            int missed = 1;
+            for (; ; ) {
+                for (; ; ) {
+                    int size = 0;
+                    Object terminal = null;
+                    while (size < BATCH) {
+                        Object next = queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        if (next == COMPLETED || next instanceof ErrorEvent) {
+                            terminal = next;
+                            break;
+                        }
+                        batch[size++] = next;
+                    }
+                    if (size == 0 && terminal == null) {
+                        break;
+                    }
+                    Subscriber<? super T>[] current = terminal == null
+                            ? subscribers.get() : subscribers.getAndSet(subscribers(TERMINATED));
+                    for (Subscriber<? super T> subscriber : current) {
+                        if (deliver(subscriber, size) && terminal != null) {
+                            terminate(subscriber, terminal);
+                        }
+                    }
+                    for (int i = 0; i < size; i++) {
+                        batch[i] = null;
+                    }
+                    if (terminal != null) {
+                        worker.unsubscribe();
+                        return;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Hands the first {@code size} values of the batch to a subscriber; false if it threw and was dropped.
+         */
+        private boolean deliver(Subscriber<? super T> subscriber, int size) {
+            try {
+                for (int i = 0; i < size; i++) {
+                    Object value = batch[i];
+                    @SuppressWarnings("unchecked")
+                    T item = value == NULL ? null : (T) value;
+                    subscriber.onNext(item);
+                }
+                return true;
+            } catch (Throwable e) {
+                fail(subscriber, e);
+                return false;
+            }
+        }
+    }
+}
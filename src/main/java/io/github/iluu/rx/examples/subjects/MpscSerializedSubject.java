@@ -0,0 +1,199 @@
+package io.github.iluu.rx.examples.subjects;
+
+import rx.Subscriber;
+import rx.exceptions.Exceptions;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Subject that can be called from any number of threads at once, passing events one at a time to a wrapped
+ * subject without locking.
+ * <p/>
+ * A caller that finds no emission in progress emits directly. Otherwise it appends the event to a lock-free
+ * multi-producer single-consumer queue and leaves; the thread emitting at the time drains the queue in batches
+ * before it gives the emission slot back. Contended callers thus cost an exchange and an increment rather than
+ * blocking on a monitor. So that producers outnumbering the drainer can't grow the queue without bound, a
+ * caller finding more than {@link #MAX_BACKLOG} events queued yields until the drainer catches up. The
+ * terminal event is passed on once every event queued before it was.
+ * <p/>
+ * An exception thrown by the wrapped subject, such as the {@code OnErrorNotImplementedException} of a
+ * subscriber without an error handler, doesn't stop the emission: the events queued meanwhile are still passed
+ * on, and the first such exception is rethrown to the emitting caller once it gives the emission slot back.
+ */
+public final class MpscSerializedSubject<T> extends Subject<T, T> {
+
+    /**
+     * Queued events above which callers wait for the drainer.
+     */
+    public static final int MAX_BACKLOG = 1 << 14;
+    private static final int BATCH = 128;
+    private static final Object COMPLETED = new Object();
+
+    private final Subject<T, T> actual;
+
+    /* events accepted and not yet emitted, the terminal event included; 0 when no one is emitting */
+    private final AtomicInteger wip = new AtomicInteger();
+    /* producers: last node appended */
+    private final AtomicReference<Node<T>> tail;
+    /* drainer: already emitted node, its successor is next */
+    private Node<T> head;
+    private final AtomicReference<Object> terminal = new AtomicReference<Object>();
+    /* so that a drainer calling back into the subject doesn't wait for itself */
+    private volatile Thread drainer;
+
+    private MpscSerializedSubject(final Subject<T, T> actual) {
+        super(new OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> child) {
+                actual.unsafeSubscribe(child);
+            }
+        });
+        this.actual = actual;
+        Node<T> stub = new Node<T>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<Node<T>>(stub);
+    }
+
+    public static <T> MpscSerializedSubject<T> create() {
+        return wrap(PublishSubject.<T>create());
+    }
+
+    /**
+     * Serializes calls to the given subject, which must not be called directly any more.
+     */
+    public static <T> MpscSerializedSubject<T> wrap(Subject<T, T> actual) {
+        return new MpscSerializedSubject<T>(actual);
+    }
+
+    @Override
+    public void onNext(T value) {
+        if (terminal.get() != null) {
+            return;
+        }
+        Throwable failure = null;
+        if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+            try {
+                actual.onNext(value);
+            } catch (Throwable e) {
+                failure = e;
+            }
+            if (wip.decrementAndGet() == 0) {
+                rethrow(failure);
+                return;
+            }
+        } else {
+            // counted before it is linked, so the drainer never takes a node it can't account for
+            int backlog = wip.getAndIncrement();
+            Node<T> node = new Node<T>(value);
+            tail.getAndSet(node).lazySet(node);
+            if (backlog != 0) {
+                if (backlog >= MAX_BACKLOG) {
+                    awaitBacklog();
+                }
+                return;
+            }
+        }
+        drain(failure);
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        terminate(new ErrorEvent(e));
+    }
+
+    @Override
+    public void onCompleted() {
+        terminate(COMPLETED);
+    }
+
+    private void terminate(Object event) {
+        if (terminal.compareAndSet(null, event) && wip.getAndIncrement() == 0) {
+            drain(null);
+        }
+    }
+
+    private void awaitBacklog() {
+        if (drainer == Thread.currentThread()) {
+            return;
+        }
+        while (wip.get() >= MAX_BACKLOG && terminal.get() == null) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Emits until the queue is empty, then rethrows the first exception the wrapped subject threw, starting with
+     * {@code failure} of the caller's own event.
+     */
+    private void drain(Throwable failure) {
+        drainer = Thread.currentThread();
+        for (; ; ) {
+            int emitted = 0;
+            Node<T> next;
+            while (emitted < BATCH && (next = head.get()) != null) {
+                T value = next.value;
+                next.value = null;
+                head = next;
+                emitted++;
+                try {
+                    actual.onNext(value);
+                } catch (Throwable e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (emitted != 0) {
+                drainer = null;
+                if (wip.addAndGet(-emitted) == 0) {
+                    rethrow(failure);
+                    return;
+                }
+                drainer = Thread.currentThread();
+                continue;
+            }
+            Object event = terminal.get();
+            if (event != null && wip.get() == 1) {
+                if (event instanceof ErrorEvent) {
+                    actual.onError(((ErrorEvent) event).error);
+                } else {
+                    actual.onCompleted();
+                }
+                rethrow(failure);
+                return;
+            }
+            // a producer has counted its event and not yet linked its node
+            Thread.yield();
+        }
+    }
+
+    private static void rethrow(Throwable failure) {
+        if (failure != null) {
+            throw Exceptions.propagate(failure);
+        }
+    }
+
+    private static final class ErrorEvent {
+        final Throwable error;
+
+        ErrorEvent(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * Queue node, the reference being its successor.
+     */
+    private static final class Node<T> extends AtomicReference<Node<T>> {
+        private static final long serialVersionUID = 1L;
+
+        T value;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+}
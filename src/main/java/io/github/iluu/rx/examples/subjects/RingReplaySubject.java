@@ -0,0 +1,227 @@
+package io.github.iluu.rx.examples.subjects;
+
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subjects.Subject;
+import rx.subscriptions.Subscriptions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded replay subject, like {@code ReplaySubject.createWithSize(size)}, built on a preallocated ring.
+ * <p/>
+ * The producer writes into the ring and publishes a sequence number, it never locks or allocates per value.
+ * Each subscriber keeps its own cursor: a late subscriber replays the last {@code size} values by scanning the
+ * ring, then carries on with live values. A subscriber whose emission is held up for longer than the ring
+ * can absorb skips ahead rather than blocking the producer.
+ * <p/>
+ * A value is only emitted if the producer had not started overwriting its slot when the subscriber
+ * re-read the tail after reading it, so a lapped subscriber never sees a value out of order or half written;
+ * it resumes from the oldest value still retained, and a value overwritten in the meantime is skipped.
+ * <p/>
+ * Like any {@code Observer} the subject expects serialized onNext calls; concurrent producers have to be
+ * serialized upstream. The int/long variants store values unboxed (and reject null), the off-heap variants
+ * keep them in a direct {@code ByteBuffer} suitable for millions of entries.
+ */
+public final class RingReplaySubject<T> extends Subject<T, T> {
+
+    private final State<T> state;
+
+    private RingReplaySubject(OnSubscribe<T> onSubscribe, State<T> state) {
+        super(onSubscribe);
+        this.state = state;
+    }
+
+    public static <T> RingReplaySubject<T> createWithSize(int size) {
+        return create(new RingSlots.Objects<T>(RingSlots.capacityFor(size)), size);
+    }
+
+    public static RingReplaySubject<Integer> createForInts(int size) {
+        return create(new RingSlots.Ints(RingSlots.capacityFor(size)), size);
+    }
+
+    public static RingReplaySubject<Long> createForLongs(int size) {
+        return create(new RingSlots.Longs(RingSlots.capacityFor(size)), size);
+    }
+
+    public static RingReplaySubject<Integer> createForIntsOffHeap(int size) {
+        return create(new RingSlots.DirectInts(RingSlots.capacityFor(size)), size);
+    }
+
+    public static RingReplaySubject<Long> createForLongsOffHeap(int size) {
+        return create(new RingSlots.DirectLongs(RingSlots.capacityFor(size)), size);
+    }
+
+    private static <T> RingReplaySubject<T> create(RingSlots<T> slots, int size) {
+        final State<T> state = new State<T>(slots, size);
+        return new RingReplaySubject<T>(new OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> child) {
+                state.add(child);
+            }
+        }, state);
+    }
+
+    @Override
+    public void onNext(T value) {
+        if (state.done) {
+            return;
+        }
+        long sequence = state.tail.get();
+        state.slots.put(sequence, value);
+        state.tail.lazySet(sequence + 1);
+        state.drainAll();
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        if (state.done) {
+            return;
+        }
+        state.error = e;
+        state.done = true;
+        state.drainAll();
+    }
+
+    @Override
+    public void onCompleted() {
+        if (state.done) {
+            return;
+        }
+        state.done = true;
+        state.drainAll();
+    }
+
+    private static final class State<T> {
+        private static final ReplayCursor<?>[] EMPTY = new ReplayCursor<?>[0];
+
+        final RingSlots<T> slots;
+        final int size;
+        final AtomicLong tail = new AtomicLong();
+        final AtomicReference<ReplayCursor<T>[]> cursors = new AtomicReference<ReplayCursor<T>[]>(State.<T>cursors(EMPTY));
+        volatile boolean done;
+        volatile Throwable error;
+
+        State(RingSlots<T> slots, int size) {
+            this.slots = slots;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> ReplayCursor<T>[] cursors(ReplayCursor<?>[] array) {
+            return (ReplayCursor<T>[]) array;
+        }
+
+        void add(Subscriber<? super T> child) {
+            final ReplayCursor<T> cursor = new ReplayCursor<T>(this, child, Math.max(0, tail.get() - size));
+            for (; ; ) {
+                ReplayCursor<T>[] current = cursors.get();
+                ReplayCursor<T>[] next = cursors(new ReplayCursor<?>[current.length + 1]);
+                System.arraycopy(current, 0, next, 0, current.length);
+                next[current.length] = cursor;
+                if (cursors.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            child.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    remove(cursor);
+                }
+            }));
+            cursor.drain();
+        }
+
+        void remove(ReplayCursor<T> cursor) {
+            for (; ; ) {
+                ReplayCursor<T>[] current = cursors.get();
+                int index = -1;
+                for (int i = 0; i < current.length; i++) {
+                    if (current[i] == cursor) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    return;
+                }
+                ReplayCursor<T>[] next = cursors(EMPTY);
+                if (current.length > 1) {
+                    next = cursors(new ReplayCursor<?>[current.length - 1]);
+                    System.arraycopy(current, 0, next, 0, index);
+                    System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+                }
+                if (cursors.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        void drainAll() {
+            for (ReplayCursor<T> cursor : cursors.get()) {
+                cursor.drain();
+            }
+        }
+    }
+
+    private static final class ReplayCursor<T> {
+        private final State<T> state;
+        private final Subscriber<? super T> child;
+        private final AtomicInteger wip = new AtomicInteger();
+        /* only touched by the thread holding wip */
+        private long position;
+        private boolean terminated;
+
+        ReplayCursor(State<T> state, Subscriber<? super T> child, long position) {
+            this.state = state;
+            this.child = child;
+            this.position = position;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            int capacity = state.slots.capacity();
+            for (; ; ) {
+                if (terminated || child.isUnsubscribed()) {
+                    return;
+                }
+                boolean done = state.done;
+                long tail = state.tail.get();
+                long p = position;
+                while (p < tail) {
+                    T value = state.slots.get(p);
+                    // the slot read is ordered before this one, so any overwrite it may have seen is published
+                    long latest = state.tail.get();
+                    if (latest - p >= capacity) {
+                        // producer lapped us while reading, resume from the oldest value still retained
+                        p = latest - state.size;
+                        tail = latest;
+                        continue;
+                    }
+                    child.onNext(value);
+                    p++;
+                }
+                position = p;
+                if (done) {
+                    terminated = true;
+                    Throwable e = state.error;
+                    if (e != null) {
+                        child.onError(e);
+                    } else {
+                        child.onCompleted();
+                    }
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
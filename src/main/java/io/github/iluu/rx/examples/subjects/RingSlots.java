@@ -0,0 +1,180 @@
+package io.github.iluu.rx.examples.subjects;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Preallocated storage behind {@link RingReplaySubject}, indexed by sequence number modulo the capacity.
+ * Primitive variants keep values unboxed, direct variants keep them off the heap.
+ * <p/>
+ * {@link #put} is ordered after every write the producer made before it, and {@link #get} is ordered before
+ * every volatile read the reader makes after it, so a reader that re-reads the published tail after a get
+ * sees any overwrite of the slot it has read from. A get never returns a torn value, but it may return a
+ * stale one (or null) for a slot that has since been overwritten; the tail check tells the two apart.
+ */
+abstract class RingSlots<T> {
+    final int mask;
+
+    RingSlots(int capacity) {
+        this.mask = capacity - 1;
+    }
+
+    final int capacity() {
+        return mask + 1;
+    }
+
+    abstract void put(long sequence, T value);
+
+    abstract T get(long sequence);
+
+    /**
+     * Smallest power of two holding {@code size} values plus the one being written, so readers
+     * can tell a retained value from one that is being overwritten.
+     */
+    static int capacityFor(int size) {
+        if (size < 1 || size >= 1 << 30) {
+            throw new IllegalArgumentException("Size must be between 1 and 2^30 - 1");
+        }
+        return Integer.highestOneBit(size) << 1;
+    }
+
+    static final class Objects<T> extends RingSlots<T> {
+        private final AtomicReferenceArray<T> values;
+
+        Objects(int capacity) {
+            super(capacity);
+            values = new AtomicReferenceArray<T>(capacity);
+        }
+
+        @Override
+        void put(long sequence, T value) {
+            values.lazySet((int) sequence & mask, value);
+        }
+
+        @Override
+        T get(long sequence) {
+            return values.get((int) sequence & mask);
+        }
+    }
+
+    static final class Ints extends RingSlots<Integer> {
+        private final AtomicIntegerArray values;
+
+        Ints(int capacity) {
+            super(capacity);
+            values = new AtomicIntegerArray(capacity);
+        }
+
+        @Override
+        void put(long sequence, Integer value) {
+            values.lazySet((int) sequence & mask, value);
+        }
+
+        @Override
+        Integer get(long sequence) {
+            return values.get((int) sequence & mask);
+        }
+    }
+
+    static final class Longs extends RingSlots<Long> {
+        private final AtomicLongArray values;
+
+        Longs(int capacity) {
+            super(capacity);
+            values = new AtomicLongArray(capacity);
+        }
+
+        @Override
+        void put(long sequence, Long value) {
+            values.lazySet((int) sequence & mask, value);
+        }
+
+        @Override
+        Long get(long sequence) {
+            return values.get((int) sequence & mask);
+        }
+    }
+
+    /**
+     * A direct buffer has no atomic accessors, so the direct variants guard each slot with the sequence it
+     * holds, like a seqlock: the writer marks the slot busy before writing it and stamps it afterwards, the
+     * reader only keeps a value if the stamp is the expected sequence both before and after reading it.
+     * The check after the read is a compare-and-set so the plain read cannot move past it.
+     */
+    abstract static class Direct<T> extends RingSlots<T> {
+        private static final long BUSY = -1;
+
+        final ByteBuffer values;
+        private final AtomicLongArray stamps;
+
+        Direct(int capacity, int width) {
+            super(capacity);
+            values = allocate(capacity, width);
+            stamps = new AtomicLongArray(capacity);
+        }
+
+        @Override
+        final void put(long sequence, T value) {
+            int index = (int) sequence & mask;
+            stamps.set(index, BUSY);
+            write(index, value);
+            stamps.lazySet(index, sequence);
+        }
+
+        @Override
+        final T get(long sequence) {
+            int index = (int) sequence & mask;
+            if (stamps.get(index) != sequence) {
+                return null;
+            }
+            T value = read(index);
+            return stamps.compareAndSet(index, sequence, sequence) ? value : null;
+        }
+
+        abstract void write(int index, T value);
+
+        abstract T read(int index);
+    }
+
+    static final class DirectInts extends Direct<Integer> {
+        DirectInts(int capacity) {
+            super(capacity, 4);
+        }
+
+        @Override
+        void write(int index, Integer value) {
+            values.putInt(index << 2, value);
+        }
+
+        @Override
+        Integer read(int index) {
+            return values.getInt(index << 2);
+        }
+    }
+
+    static final class DirectLongs extends Direct<Long> {
+        DirectLongs(int capacity) {
+            super(capacity, 8);
+        }
+
+        @Override
+        void write(int index, Long value) {
+            values.putLong(index << 3, value);
+        }
+
+        @Override
+        Long read(int index) {
+            return values.getLong(index << 3);
+        }
+    }
+
+    private static ByteBuffer allocate(int capacity, int width) {
+        if ((long) capacity * width > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Off-heap ring holds at most " + Integer.MAX_VALUE / width + " values");
+        }
+        return ByteBuffer.allocateDirect(capacity * width).order(ByteOrder.nativeOrder());
+    }
+}
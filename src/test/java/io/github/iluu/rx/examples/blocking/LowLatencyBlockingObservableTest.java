@@ -0,0 +1,150 @@
+package io.github.iluu.rx.examples.blocking;
+
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.runInNewThread;
+import static io.github.iluu.rx.examples.helpers.TestFunctions.runInNewThreadEmitNull;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LowLatencyBlockingObservableTest {
+
+    private static final WaitStrategy[] STRATEGIES = {
+            WaitStrategy.PARK, WaitStrategy.YIELD, WaitStrategy.BUSY_SPIN, WaitStrategy.spinThenPark(1000, 10)
+    };
+
+    @Test
+    public void singleReturnsTheOnlyElementEmitted() {
+        for (WaitStrategy strategy : STRATEGIES) {
+            PublishSubject<Integer> observable = PublishSubject.create();
+            LowLatencyBlockingObservable<Integer> result = LowLatencyBlockingObservable.from(observable, strategy);
+
+            runInNewThread(observable, Arrays.asList(2));
+            assertThat(result.single(), is(2));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleThrowsExceptionWhenMoreThenOneValueGetsEmitted() {
+        PublishSubject<Integer> observable = PublishSubject.create();
+        LowLatencyBlockingObservable<Integer> result = LowLatencyBlockingObservable.from(observable,
+                WaitStrategy.spinThenPark(100, 10));
+
+        runInNewThread(observable, Arrays.asList(1, 2));
+        result.single();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void singleThrowsExceptionWhenNoValueFulfillsGivenPredicate() {
+        PublishSubject<Integer> observable = PublishSubject.create();
+        LowLatencyBlockingObservable<Integer> result = LowLatencyBlockingObservable.from(observable,
+                WaitStrategy.PARK);
+
+        runInNewThread(observable, Arrays.asList(1, 2));
+        result.single(new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer integer) {
+                return integer > 5;
+            }
+        });
+    }
+
+    @Test
+    public void singleOrDefaultReturnsNullAsAValidValue() {
+        for (WaitStrategy strategy : STRATEGIES) {
+            PublishSubject<Integer> observable = PublishSubject.create();
+            LowLatencyBlockingObservable<Integer> result = LowLatencyBlockingObservable.from(observable, strategy);
+
+            runInNewThreadEmitNull(observable);
+            assertThat(result.singleOrDefault(2), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void singleOrDefaultReturnsDefaultWhenNoValueWasEmitted() {
+        PublishSubject<Integer> observable = PublishSubject.create();
+        LowLatencyBlockingObservable<Integer> result = LowLatencyBlockingObservable.from(observable,
+                WaitStrategy.YIELD);
+
+        runInNewThread(observable, Collections.<Integer>emptyList());
+        assertThat(result.singleOrDefault(2), is(2));
+    }
+
+    @Test
+    public void errorIsRethrown() {
+        IllegalStateException error = new IllegalStateException();
+        try {
+            LowLatencyBlockingObservable.from(Observable.<Integer>error(error), WaitStrategy.PARK).single();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e, is(error));
+        }
+    }
+
+    @Test
+    public void batchesTakeEverythingThatArrived() {
+        LowLatencyBlockingObservable.BatchIterator<Integer> iterator = LowLatencyBlockingObservable
+                .from(Observable.range(1, 10), WaitStrategy.PARK).getIterator();
+        Integer[] batch = new Integer[4];
+
+        assertThat(iterator.nextBatch(batch, 4), is(4));
+        assertThat(Arrays.asList(batch), is(Arrays.asList(1, 2, 3, 4)));
+        assertThat(iterator.next(), is(5));
+        assertThat(iterator.nextBatch(batch, 3), is(3));
+        assertThat(iterator.nextBatch(batch, 4), is(2));
+        assertThat(batch[1], is(10));
+        assertThat(iterator.nextBatch(batch, 4), is(-1));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void iteratorSeesValuesFromAnotherThreadInOrder() {
+        for (WaitStrategy strategy : STRATEGIES) {
+            LowLatencyBlockingObservable.BatchIterator<Integer> iterator = LowLatencyBlockingObservable
+                    .from(Observable.range(0, 100000).subscribeOn(Schedulers.newThread()), strategy).getIterator();
+            Integer[] batch = new Integer[64];
+            List<Integer> received = new ArrayList<Integer>();
+
+            int size;
+            while ((size = iterator.nextBatch(batch, batch.length)) != -1) {
+                assertTrue(size > 0);
+                received.addAll(Arrays.asList(batch).subList(0, size));
+            }
+
+            assertThat(received.size(), is(100000));
+            for (int i = 0; i < received.size(); i++) {
+                assertThat(received.get(i), is(i));
+            }
+        }
+    }
+
+    @Test
+    public void iteratorPassesNullsAndThrowsErrorAfterValues() {
+        LowLatencyBlockingObservable.BatchIterator<Integer> iterator = LowLatencyBlockingObservable
+                .from(Observable.from(1, null).concatWith(Observable.<Integer>error(new IllegalStateException())),
+                        WaitStrategy.PARK).getIterator();
+
+        assertThat(iterator.next(), is(1));
+        assertThat(iterator.next(), is(nullValue()));
+        try {
+            iterator.hasNext();
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(iterator.isUnsubscribed());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.iluu.rx.examples.fusion;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+
+import java.util.Arrays;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FusedObservableTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Mock
+    private Action1<Integer> sideEffect;
+
+    @Mock
+    private Action1<Integer> laterSideEffect;
+
+    private final Func1<Integer, Integer> multiply = new Func1<Integer, Integer>() {
+        @Override
+        public Integer call(Integer value) {
+            return value * 2;
+        }
+    };
+
+    private final Func1<Integer, Boolean> odd = new Func1<Integer, Boolean>() {
+        @Override
+        public Boolean call(Integer value) {
+            return value % 2 == 1;
+        }
+    };
+
+    @Test
+    public void rangeEndingAtMaxValueStopsThere() {
+        FusedObservable.range(Integer.MAX_VALUE - 1, 2).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rangePastMaxValueIsRejected() {
+        FusedObservable.range(Integer.MAX_VALUE, 2);
+    }
+
+    @Test
+    public void rangeRunsStepsInOrder() {
+        FusedObservable.range(1, 3).doOnNext(sideEffect).map(multiply).doOnNext(laterSideEffect).toObservable()
+                .subscribe(testObserver);
+
+        InOrder inOrder = inOrder(sideEffect, laterSideEffect);
+        inOrder.verify(sideEffect).call(1);
+        inOrder.verify(laterSideEffect).call(2);
+        inOrder.verify(sideEffect).call(2);
+        inOrder.verify(laterSideEffect).call(4);
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 4, 6));
+    }
+
+    @Test
+    public void filterDropsValuesBeforeLaterSteps() {
+        FusedObservable.from(Arrays.asList(1, 2, 3, 4, 5)).filter(odd).doOnNext(sideEffect).map(multiply)
+                .toObservable().subscribe(testObserver);
+
+        verify(sideEffect, times(3)).call(any(Integer.class));
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 6, 10));
+    }
+
+    @Test
+    public void mapCanChangeType() {
+        TestSubscriber<String> subscriber = new TestSubscriber<String>();
+
+        FusedObservable.range(1, 2).map(new Func1<Integer, String>() {
+            @Override
+            public String call(Integer value) {
+                return "#" + value;
+            }
+        }).toObservable().subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList("#1", "#2"));
+    }
+
+    @Test
+    public void filteredValuesDoNotCountAgainstDemand() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onStart() {
+                request(2);
+            }
+        };
+
+        FusedObservable.range(1, 100).filter(odd).toObservable().subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList(1, 3));
+    }
+
+    @Test
+    public void liftedChainRequestsReplacementForFilteredValues() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onStart() {
+                request(2);
+            }
+        };
+
+        FusedObservable.from(Observable.range(1, 100)).filter(odd).map(multiply).toObservable()
+                .subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList(2, 6));
+    }
+
+    @Test
+    public void liftedChainPassesTerminalEvents() {
+        FusedObservable.from(Observable.from(1, 2, 3)).map(multiply).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 4, 6));
+    }
+
+    @Test
+    public void errorInStepStopsTheLoop() {
+        FusedObservable.range(0, 5).map(new Func1<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) {
+                return 4 / (2 - value);
+            }
+        }).toObservable().subscribe(testObserver);
+
+        InOrder inOrder = inOrder(testObserver);
+        inOrder.verify(testObserver).onNext(2);
+        inOrder.verify(testObserver).onNext(4);
+        inOrder.verify(testObserver).onError(any(ArithmeticException.class));
+        verifyNoMoreInteractions(testObserver);
+    }
+
+    @Test
+    public void chainCanBeSubscribedMoreThanOnce() {
+        Observable<Integer> observable = FusedObservable.range(1, 2).map(multiply).toObservable();
+
+        observable.subscribe(testObserver);
+        observable.subscribe(testObserver);
+
+        verify(testObserver, times(2)).onNext(2);
+        verify(testObserver, times(2)).onNext(4);
+        verify(testObserver, times(2)).onCompleted();
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.iluu.rx.examples.load;
+
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LoadHarnessTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void everySentEventIsRecorded() {
+        LoadProfile profile = LoadProfile.openLoop(2, 2000, 300, TimeUnit.MILLISECONDS)
+                .withWarmup(100, TimeUnit.MILLISECONDS);
+        LoadReport report = LoadHarness.run(profile, PublishSubject.<LoadEvent>create());
+
+        assertTrue(report.getSent() > 0);
+        assertThat(report.getReceived(), is(report.getSent()));
+        assertThat(report.getCorrected().count(), is(report.getSent()));
+        assertThat(report.getRaw().count(), is(report.getSent()));
+        assertTrue(report.p50() > 0);
+        assertTrue(report.p999() >= report.p99() && report.p99() >= report.p50());
+        assertTrue(report.p99() >= report.getRaw().valueAtPercentile(99));
+        assertTrue(report.getThroughput() > 0);
+    }
+
+    @Test
+    public void openLoopChargesAStallToTheEventsHeldBehindIt() {
+        LoadReport report = LoadHarness.run(LoadProfile.openLoop(1, 1000, 500, TimeUnit.MILLISECONDS), stallAt(100));
+
+        assertThat(report.getReceived(), is(report.getSent()));
+        assertThat(report.getCorrected().count(), is(report.getSent()));
+        assertTrue(report.p99() > 50 * MILLIS);
+        assertTrue(report.p99() > report.getRaw().valueAtPercentile(99));
+    }
+
+    @Test
+    public void fixedRateSkipsHeldBackSendsAndBackfillsThem() {
+        LoadReport report = LoadHarness.run(LoadProfile.fixedRate(1, 1000, 500, TimeUnit.MILLISECONDS), stallAt(100));
+
+        assertThat(report.getReceived(), is(report.getSent()));
+        assertTrue(report.getCorrected().count() > report.getSent() + 50);
+        assertTrue(report.p99() > 50 * MILLIS);
+        assertTrue(report.p99() > report.getRaw().valueAtPercentile(99));
+    }
+
+    @Test
+    public void fixedRateBackfillsNothingWhenTheProducerIsNotHeldBack() {
+        LoadReport report = LoadHarness.run(LoadProfile.fixedRate(1, 100, 300, TimeUnit.MILLISECONDS),
+                new Func1<Observable<LoadEvent>, Observable<LoadEvent>>() {
+                    @Override
+                    public Observable<LoadEvent> call(Observable<LoadEvent> events) {
+                        // the consumer falls behind by several intervals on another thread
+                        return events.onBackpressureBuffer().observeOn(Schedulers.newThread())
+                                .doOnNext(new Action1<LoadEvent>() {
+                                    @Override
+                                    public void call(LoadEvent event) {
+                                        if (event.getSequence() < 5) {
+                                            LockSupport.parkNanos(30 * MILLIS);
+                                        }
+                                    }
+                                });
+                    }
+                });
+
+        assertThat(report.getReceived(), is(report.getSent()));
+        // a slot the producer thread itself misses is still back-filled, allow for scheduling jitter
+        assertTrue(report.getCorrected().count() - report.getSent() < 5);
+        assertTrue(report.getCorrected().max() > 50 * MILLIS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void targetErrorIsRethrown() {
+        LoadHarness.run(LoadProfile.openLoop(2, 1000, 1, TimeUnit.SECONDS),
+                new Func1<Observable<LoadEvent>, Observable<LoadEvent>>() {
+                    @Override
+                    public Observable<LoadEvent> call(Observable<LoadEvent> events) {
+                        return events.doOnNext(new Action1<LoadEvent>() {
+                            @Override
+                            public void call(LoadEvent event) {
+                                if (event.getSequence() == 10) {
+                                    throw new IllegalStateException("failed");
+                                }
+                            }
+                        });
+                    }
+                });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void outputNotCompletingFailsTheRun() {
+        PublishSubject<LoadEvent> input = PublishSubject.create();
+        LoadHarness.run(LoadProfile.openLoop(1, 1000, 50, TimeUnit.MILLISECONDS), input,
+                Observable.concat(input, Observable.<LoadEvent>never()), 100, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Blocks the consumer for 100 ms on the given event of every producer.
+     */
+    private static Func1<Observable<LoadEvent>, Observable<LoadEvent>> stallAt(final long sequence) {
+        return new Func1<Observable<LoadEvent>, Observable<LoadEvent>>() {
+            @Override
+            public Observable<LoadEvent> call(Observable<LoadEvent> events) {
+                return events.doOnNext(new Action1<LoadEvent>() {
+                    @Override
+                    public void call(LoadEvent event) {
+                        if (event.getSequence() == sequence) {
+                            try {
+                                Thread.sleep(100);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.iluu.rx.examples.logging;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class TraceSinkTest {
+
+    @Test
+    public void writesRecordsInOrderWithThreadAndTag() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TraceSink sink = TraceSink.start(4, TraceSink.OverflowPolicy.BLOCK, new PrintStream(bytes));
+
+        for (int i = 0; i < 10; i++) {
+            sink.record("Generated:", i);
+        }
+        sink.close();
+
+        String[] lines = bytes.toString().split("\n");
+        assertThat(lines.length, is(10));
+        String thread = " thread-" + Thread.currentThread().getId() + " ";
+        for (int i = 0; i < 10; i++) {
+            assertTrue(lines[i], lines[i].endsWith(thread + "Generated: " + i));
+        }
+        assertThat(sink.dropped(), is(0L));
+    }
+
+    @Test
+    public void dropsAndCountsRecordsWhenRingIsFull() throws InterruptedException {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        PrintStream blocked = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        TraceSink sink = TraceSink.start(4, TraceSink.OverflowPolicy.DROP, blocked);
+
+        sink.record("tag", 0);
+        writing.await();
+        for (int i = 1; i <= 7; i++) {
+            sink.record("tag", i);
+        }
+
+        assertThat(sink.dropped(), is(3L));
+        release.countDown();
+        sink.close();
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.iluu.rx.examples.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(10L));
+        assertThat(snapshot.valueAtPercentile(50), is(5L));
+        assertThat(snapshot.valueAtPercentile(100), is(10L));
+        assertThat(snapshot.max(), is(10L));
+    }
+
+    @Test
+    public void largeValuesStayWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertWithinSixteenth(snapshot.valueAtPercentile(50), 50000000L);
+        assertWithinSixteenth(snapshot.valueAtPercentile(99), 99000000L);
+        assertThat(snapshot.valueAtPercentile(100), is(100000000L));
+    }
+
+    @Test
+    public void everyValueMapsIntoItsBucket() {
+        long[] values = {0, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value);
+        }
+    }
+
+    @Test
+    public void correctedRecordingBackfillsMissedIntervals() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordCorrected(100, 10);
+        histogram.recordCorrected(5, 10);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(11L));
+        assertThat(snapshot.valueAtPercentile(10), is(10L));
+        assertThat(snapshot.max(), is(100L));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        assertThat(new LatencyHistogram().snapshot().valueAtPercentile(99), is(0L));
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100000; i++) {
+                        histogram.record(i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(histogram.snapshot().count(), is(400000L));
+    }
+
+    private static void assertWithinSixteenth(long actual, long expected) {
+        assertTrue(actual + " not within 1/16 of " + expected, Math.abs(actual - expected) <= expected / 16);
+    }
+}
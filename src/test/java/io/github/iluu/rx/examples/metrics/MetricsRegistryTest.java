@@ -0,0 +1,156 @@
+package io.github.iluu.rx.examples.metrics;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MetricsRegistryTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Test
+    public void instrumentCountsNotificationsAndPassesThemOn() {
+        MetricsRegistry registry = MetricsRegistry.create();
+
+        Observable.from(1, 2, 3).lift(registry.<Integer>instrument("from")).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1, 2, 3));
+        OperatorMetrics.Snapshot snapshot = registry.metrics("from").snapshot();
+        assertThat(snapshot.onNext(), is(3L));
+        assertThat(snapshot.completed(), is(1L));
+        assertThat(snapshot.errors(), is(0L));
+        assertThat(snapshot.latency().count(), is(0L));
+    }
+
+    @Test
+    public void sectionSamplesEveryNthValue() {
+        MetricsRegistry registry = MetricsRegistry.create();
+        LatencySection section = registry.section("range", 16);
+
+        Observable.range(0, 100).lift(section.<Integer>begin()).lift(section.<Integer>end()).subscribe(testObserver);
+
+        assertThat(registry.metrics("range").snapshot().latency().count(), is(7L));
+    }
+
+    @Test
+    public void sectionMeasuresFromEmissionToReceiptAcrossThreads() {
+        MetricsRegistry registry = MetricsRegistry.create();
+        LatencySection section = registry.section("observeOn", 1);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.range(0, 10).lift(section.<Integer>begin())
+                .observeOn(Schedulers.newThread())
+                .map(new Func1<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer value) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+                        return value;
+                    }
+                })
+                .lift(section.<Integer>end())
+                .map(new Func1<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer value) {
+                        // downstream of the end, not part of the section
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                        return value;
+                    }
+                })
+                .subscribe(subscriber);
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+
+        LatencyHistogram.Snapshot latency = registry.metrics("observeOn").snapshot().latency();
+        assertThat(latency.count(), is(10L));
+        assertTrue(latency.valueAtPercentile(0) >= TimeUnit.MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    public void valuesWhoseTimestampWasDroppedAreNotTimedAgainstLaterOnes() {
+        MetricsRegistry registry = MetricsRegistry.create();
+        LatencySection section = registry.section("backlog", 1);
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onStart() {
+                request(1);
+            }
+        };
+        source.lift(section.<Integer>begin()).onBackpressureBuffer().observeOn(scheduler)
+                .lift(section.<Integer>end()).subscribe(subscriber);
+
+        // more values in flight than there is room for timestamps, the last 76 are dropped
+        for (int i = 0; i < 1100; i++) {
+            source.onNext(i);
+        }
+        scheduler.triggerActions();
+        // received 0, which leaves room for the timestamp of 1100
+        source.onNext(1100);
+        subscriber.requestMore(1024);
+        scheduler.triggerActions();
+
+        assertThat(subscriber.getOnNextEvents().size(), is(1025));
+        // 0 to 1023 timed; 1024 has no timestamp and must not take the one of 1100
+        assertThat(registry.metrics("backlog").snapshot().latency().count(), is(1024L));
+    }
+
+    @Test
+    public void errorsAreCounted() {
+        MetricsRegistry registry = MetricsRegistry.create();
+
+        Observable.from(1, 0).map(new Func1<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) {
+                return 1 / value;
+            }
+        }).lift(registry.<Integer>instrument("map")).subscribe(testObserver);
+
+        OperatorMetrics.Snapshot snapshot = registry.snapshot().get(0);
+        assertThat(snapshot.onNext(), is(1L));
+        assertThat(snapshot.errors(), is(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void samplingIntervalMustBePowerOfTwo() {
+        MetricsRegistry.create().section("map", 10);
+    }
+
+    @Test
+    public void metricsAreReadableOverJmx() throws Exception {
+        MetricsRegistry registry = MetricsRegistry.withJmx("rx.examples.test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("rx.examples.test:type=OperatorMetrics,name=" + ObjectName.quote("map"));
+
+        LatencySection section = registry.section("map", 1);
+        Observable.range(0, 5).lift(registry.<Integer>instrument("map"))
+                .lift(section.<Integer>begin()).lift(section.<Integer>end()).subscribe(testObserver);
+
+        assertThat((Long) server.getAttribute(name, "OnNextCount"), is(5L));
+        assertThat((Long) server.getAttribute(name, "LatencySamples"), is(5L));
+        registry.close();
+        assertFalse(server.isRegistered(name));
+    }
+}
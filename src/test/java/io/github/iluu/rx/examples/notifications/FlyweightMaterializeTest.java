@@ -0,0 +1,97 @@
+package io.github.iluu.rx.examples.notifications;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Notification;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlyweightMaterializeTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Test
+    public void materializeReusesOneNotificationPerSubscription() {
+        final List<MutableNotification<Integer>> instances = new ArrayList<MutableNotification<Integer>>();
+        final List<Notification<Integer>> copies = new ArrayList<Notification<Integer>>();
+        TestSubscriber<MutableNotification<Integer>> subscriber = new TestSubscriber<MutableNotification<Integer>>() {
+            @Override
+            public void onNext(MutableNotification<Integer> notification) {
+                instances.add(notification);
+                copies.add(notification.toNotification());
+            }
+        };
+
+        Observable.from(1, 2).lift(FlyweightMaterialize.<Integer>materialize()).subscribe(subscriber);
+
+        assertThat(instances.size(), is(3));
+        assertThat(instances.get(0), sameInstance(instances.get(2)));
+        assertThat(copies, is(Arrays.asList(Notification.createOnNext(1), Notification.createOnNext(2),
+                Notification.<Integer>createOnCompleted())));
+        subscriber.assertTerminalEvent();
+    }
+
+    @Test
+    public void materializeTurnsErrorIntoNotification() {
+        final List<Notification<Integer>> copies = new ArrayList<Notification<Integer>>();
+        TestSubscriber<MutableNotification<Integer>> subscriber = new TestSubscriber<MutableNotification<Integer>>() {
+            @Override
+            public void onNext(MutableNotification<Integer> notification) {
+                copies.add(notification.toNotification());
+            }
+        };
+
+        Observable.<Integer>error(new IllegalStateException()).lift(FlyweightMaterialize.<Integer>materialize())
+                .subscribe(subscriber);
+
+        assertThat(copies.get(0).getThrowable(), instanceOf(IllegalStateException.class));
+        assertThat(subscriber.getOnErrorEvents().isEmpty(), is(true));
+        assertThat(subscriber.getOnCompletedEvents().size(), is(1));
+    }
+
+    @Test
+    public void dematerializeRestoresSequence() {
+        Observable.from(1, 2, 3)
+                .lift(FlyweightMaterialize.<Integer>materialize())
+                .filter(new Func1<MutableNotification<Integer>, Boolean>() {
+                    @Override
+                    public Boolean call(MutableNotification<Integer> notification) {
+                        return !notification.isOnNext() || notification.getValue() != 2;
+                    }
+                })
+                .lift(FlyweightMaterialize.<Integer>dematerialize())
+                .subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1, 3));
+    }
+
+    @Test
+    public void dematerializePassesErrorOnce() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.from(1).concatWith(Observable.<Integer>error(new IllegalStateException()))
+                .lift(FlyweightMaterialize.<Integer>materialize())
+                .lift(FlyweightMaterialize.<Integer>dematerialize())
+                .subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList(1));
+        assertThat(subscriber.getOnErrorEvents().size(), is(1));
+        assertThat(subscriber.getOnCompletedEvents().size(), is(0));
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.iluu.rx.examples.notifications;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationRingTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Test
+    public void drainsUpToRequestedValuesInOrder() {
+        NotificationRing<Integer> ring = new NotificationRing<Integer>(8);
+        for (int i = 1; i <= 5; i++) {
+            ring.offerNext(i);
+        }
+
+        assertThat(ring.drain(testObserver, 3), is(3L));
+        assertThat(ring.drain(testObserver, 10), is(2L));
+
+        InOrder inOrder = inOrder(testObserver);
+        for (int i = 1; i <= 5; i++) {
+            inOrder.verify(testObserver).onNext(i);
+        }
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void keepsSlotForTerminalEventWhenFull() {
+        NotificationRing<Integer> ring = new NotificationRing<Integer>(4);
+        for (int i = 0; i < ring.valueCapacity(); i++) {
+            assertTrue(ring.offerNext(i));
+        }
+        assertFalse(ring.offerNext(99));
+        IllegalStateException error = new IllegalStateException();
+        ring.offerError(error);
+
+        ring.drain(testObserver, 0);
+        assertFalse(ring.isDone());
+        ring.drain(testObserver, Long.MAX_VALUE);
+
+        InOrder inOrder = inOrder(testObserver);
+        inOrder.verify(testObserver).onNext(0);
+        inOrder.verify(testObserver).onNext(1);
+        inOrder.verify(testObserver).onNext(2);
+        inOrder.verify(testObserver).onError(error);
+        verifyNoMoreInteractions(testObserver);
+        assertTrue(ring.isDone());
+    }
+
+    @Test
+    public void terminalEventDoesNotNeedRequest() {
+        NotificationRing<Integer> ring = new NotificationRing<Integer>(2);
+        ring.offerCompleted();
+
+        ring.drain(testObserver, 0);
+
+        InOrder inOrder = inOrder(testObserver);
+        inOrder.verify(testObserver).onCompleted();
+        assertTrue(ring.isDone());
+    }
+
+    @Test
+    public void wrapsAroundManyTimes() {
+        NotificationRing<Integer> ring = new NotificationRing<Integer>(4);
+        Observer<Integer> counting = new Observer<Integer>() {
+            private int expected;
+
+            @Override
+            public void onNext(Integer value) {
+                assertThat(value, is(expected++));
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ring.offerNext(i));
+            assertThat(ring.drain(counting, 1), is(1L));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.iluu.rx.examples.notifications;
+
+import org.junit.Test;
+import rx.Observable;
+import rx.exceptions.MissingBackpressureException;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class OperatorRingObserveOnTest {
+
+    @Test
+    public void deliversEverythingOnScheduler() {
+        final List<String> threads = new ArrayList<String>();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                threads.add(Thread.currentThread().getName());
+                super.onNext(value);
+            }
+        };
+
+        Observable.range(0, 100000).lift(new OperatorRingObserveOn<Integer>(Schedulers.newThread(), 128))
+                .subscribe(subscriber);
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        List<Integer> received = subscriber.getOnNextEvents();
+        assertThat(received.size(), is(100000));
+        for (int i = 0; i < received.size(); i++) {
+            assertThat(received.get(i), is(i));
+        }
+        assertThat(threads.get(0).equals(Thread.currentThread().getName()), is(false));
+        subscriber.assertNoErrors();
+    }
+
+    @Test
+    public void childReceivesOnlyRequestedValues() {
+        TestScheduler scheduler = new TestScheduler();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onStart() {
+                request(2);
+            }
+        };
+
+        Observable.range(1, 100).lift(new OperatorRingObserveOn<Integer>(scheduler, 16)).subscribe(subscriber);
+        scheduler.triggerActions();
+
+        subscriber.assertReceivedOnNext(Arrays.asList(1, 2));
+        subscriber.requestMore(1);
+        scheduler.triggerActions();
+        subscriber.assertReceivedOnNext(Arrays.asList(1, 2, 3));
+    }
+
+    @Test
+    public void sourceIgnoringBackpressureFailsWhenRingIsFull() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        subject.lift(new OperatorRingObserveOn<Integer>(scheduler, 4)).subscribe(subscriber);
+        for (int i = 0; i < 10; i++) {
+            subject.onNext(i);
+        }
+        scheduler.triggerActions();
+
+        subscriber.assertReceivedOnNext(Arrays.asList(0, 1, 2));
+        assertThat(subscriber.getOnErrorEvents().get(0), instanceOf(MissingBackpressureException.class));
+    }
+}
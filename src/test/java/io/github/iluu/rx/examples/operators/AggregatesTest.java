@@ -0,0 +1,116 @@
+package io.github.iluu.rx.examples.operators;
+
+import io.github.iluu.rx.examples.primitive.LongAccumulator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Action1;
+import rx.observers.TestSubscriber;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AggregatesTest {
+
+    @Mock
+    private Observer<Long> longObserver;
+
+    @Mock
+    private Observer<Integer> intObserver;
+
+    @Test
+    public void countEmitsNumberOfEventsOnce() {
+        Observable.from("a", "b", "c", "d").lift(Aggregates.<String>count()).subscribe(longObserver);
+
+        verifyNotificationSequence(longObserver, Arrays.asList(4L));
+    }
+
+    @Test
+    public void countOfEmptySequenceIsZero() {
+        Observable.<String>empty().lift(Aggregates.<String>count()).subscribe(longObserver);
+
+        verifyNotificationSequence(longObserver, Arrays.asList(0L));
+    }
+
+    @Test
+    public void sumOfIntsDoesNotOverflow() {
+        Observable.from(Integer.MAX_VALUE, Integer.MAX_VALUE).lift(Aggregates.sumOfInts()).subscribe(longObserver);
+
+        verifyNotificationSequence(longObserver, Arrays.asList(2L * Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void minAndMaxPickExtremes() {
+        Observable<Integer> observable = Observable.from(3, -1, 7, 2);
+
+        observable.lift(Aggregates.minOfInts()).subscribe(intObserver);
+        observable.lift(Aggregates.maxOfInts()).subscribe(intObserver);
+
+        verify(intObserver).onNext(-1);
+        verify(intObserver).onNext(7);
+        verify(intObserver, times(2)).onCompleted();
+        verifyNoMoreInteractions(intObserver);
+    }
+
+    @Test
+    public void maxOfEmptySequenceFails() {
+        Observable.<Integer>empty().lift(Aggregates.maxOfInts()).subscribe(intObserver);
+
+        verify(intObserver).onError(any(NoSuchElementException.class));
+        verifyNoMoreInteractions(intObserver);
+    }
+
+    @Test
+    public void reduceToLongFoldsIntoPrimitiveAccumulator() {
+        Observable.from("a", "bb", "ccc").lift(Aggregates.reduceToLong(10, new LongAccumulator<String>() {
+            @Override
+            public long call(long accumulator, String value) {
+                return accumulator + value.length();
+            }
+        })).subscribe(longObserver);
+
+        verifyNotificationSequence(longObserver, Arrays.asList(16L));
+    }
+
+    @Test
+    public void throwingAccumulatorStopsUpstream() {
+        final AtomicInteger emitted = new AtomicInteger();
+        Observable.range(1, 10).doOnNext(new Action1<Integer>() {
+            @Override
+            public void call(Integer value) {
+                emitted.incrementAndGet();
+            }
+        }).lift(Aggregates.reduceToLong(0, new LongAccumulator<Integer>() {
+            @Override
+            public long call(long accumulator, Integer value) {
+                if (value == 3) {
+                    throw new IllegalStateException();
+                }
+                return accumulator + value;
+            }
+        })).unsafeSubscribe(new TestSubscriber<Long>(longObserver));
+
+        verify(longObserver).onError(any(IllegalStateException.class));
+        verifyNoMoreInteractions(longObserver);
+        assertThat(emitted.get(), is(3));
+    }
+
+    @Test
+    public void errorIsPassedThroughWithoutResult() {
+        Observable.<Long>error(new IllegalStateException()).lift(Aggregates.sumOfLongs()).subscribe(longObserver);
+
+        verify(longObserver).onError(any(IllegalStateException.class));
+        verifyNoMoreInteractions(longObserver);
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.iluu.rx.examples.operators;
+
+import org.junit.Test;
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class MemoizingFunc1Test {
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private final Func1<Integer, Observable<Integer>> fetch = new Func1<Integer, Observable<Integer>>() {
+        @Override
+        public Observable<Integer> call(Integer key) {
+            fetches.incrementAndGet();
+            return Observable.from(key, key * 10);
+        }
+    };
+
+    @Test
+    public void repeatedKeysAreFetchedOnce() {
+        MemoizingFunc1<Integer, Integer> memoized = MemoizingFunc1.create(fetch, 10);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.from(1, 2, 1, 1, 2).mergeMap(memoized).subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList(1, 10, 2, 20, 1, 10, 1, 10, 2, 20));
+        assertThat(fetches.get(), is(2));
+        assertThat(memoized.getMisses(), is(2L));
+        assertThat(memoized.getHits(), is(3L));
+    }
+
+    @Test
+    public void subscribersOfAnInFlightFetchShareIt() {
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final Subscriber<?>[] upstream = new Subscriber<?>[1];
+        MemoizingFunc1<Integer, Integer> memoized = MemoizingFunc1.create(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer key) {
+                return Observable.create(new Observable.OnSubscribe<Integer>() {
+                    @Override
+                    public void call(Subscriber<? super Integer> subscriber) {
+                        subscriptions.incrementAndGet();
+                        upstream[0] = subscriber;
+                    }
+                });
+            }
+        }, 10);
+        TestSubscriber<Integer> first = new TestSubscriber<Integer>();
+        TestSubscriber<Integer> second = new TestSubscriber<Integer>();
+
+        memoized.call(1).subscribe(first);
+        memoized.call(1).subscribe(second);
+        @SuppressWarnings("unchecked")
+        Subscriber<Integer> source = (Subscriber<Integer>) upstream[0];
+        source.onNext(5);
+        source.onCompleted();
+
+        assertThat(subscriptions.get(), is(1));
+        first.assertReceivedOnNext(Arrays.asList(5));
+        second.assertReceivedOnNext(Arrays.asList(5));
+        second.assertTerminalEvent();
+    }
+
+    @Test
+    public void leastRecentlyUsedKeyIsEvicted() {
+        MemoizingFunc1<Integer, Integer> memoized = MemoizingFunc1.create(fetch, 2);
+
+        Observable.from(1, 2, 1, 3, 1, 2).mergeMap(memoized).subscribe(new TestSubscriber<Integer>());
+
+        assertThat(fetches.get(), is(4));
+        assertThat(memoized.getHits(), is(2L));
+        assertThat(memoized.getEvictions(), is(2L));
+        assertThat(memoized.size(), is(2));
+    }
+
+    @Test
+    public void expiredEntryIsFetchedAgain() {
+        TestScheduler clock = new TestScheduler();
+        MemoizingFunc1<Integer, Integer> memoized = MemoizingFunc1.create(fetch, 10, 1, TimeUnit.MINUTES, clock);
+
+        memoized.call(1).subscribe(new TestSubscriber<Integer>());
+        clock.advanceTimeBy(59, TimeUnit.SECONDS);
+        memoized.call(1).subscribe(new TestSubscriber<Integer>());
+        clock.advanceTimeBy(1, TimeUnit.SECONDS);
+        memoized.call(1).subscribe(new TestSubscriber<Integer>());
+
+        assertThat(fetches.get(), is(2));
+        assertThat(memoized.getHits(), is(1L));
+        assertThat(memoized.getEvictions(), is(1L));
+
+        clock.advanceTimeBy(1, TimeUnit.MINUTES);
+        memoized.evictExpired();
+        assertThat(memoized.size(), is(0));
+        assertThat(memoized.getEvictions(), is(2L));
+    }
+
+    @Test
+    public void failedFetchIsNotKept() {
+        MemoizingFunc1<Integer, Integer> memoized = MemoizingFunc1.create(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer key) {
+                if (fetches.incrementAndGet() == 1) {
+                    return Observable.error(new IllegalStateException());
+                }
+                return Observable.from(key);
+            }
+        }, 10);
+        TestSubscriber<Integer> failed = new TestSubscriber<Integer>();
+        TestSubscriber<Integer> retried = new TestSubscriber<Integer>();
+
+        memoized.call(1).subscribe(failed);
+        memoized.call(1).subscribe(retried);
+
+        assertThat(failed.getOnErrorEvents().size(), is(1));
+        retried.assertReceivedOnNext(Arrays.asList(1));
+        assertThat(memoized.getMisses(), is(2L));
+    }
+}
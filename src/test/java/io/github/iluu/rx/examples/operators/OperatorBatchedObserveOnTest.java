@@ -0,0 +1,209 @@
+package io.github.iluu.rx.examples.operators;
+
+import io.github.iluu.rx.examples.sources.OnSubscribeGenerate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OperatorBatchedObserveOnTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Test
+    public void keepsOrderAcrossBatchesOnAnotherThread() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 1; i <= 10000; i++) {
+            expected.add(i);
+        }
+
+        Observable.range(1, 10000)
+                .lift(new OperatorBatchedObserveOn<Integer>(Schedulers.computation(), 128, 0, TimeUnit.MILLISECONDS))
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertReceivedOnNext(expected);
+        assertThat(subscriber.getOnCompletedEvents().size(), is(1));
+    }
+
+    @Test
+    public void lingerFlushRacingProducerKeepsOrder() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 1; i <= 2000; i++) {
+            expected.add(i);
+        }
+
+        Observable.range(1, 2000)
+                .doOnNext(new Action1<Integer>() {
+                    @Override
+                    public void call(Integer value) {
+                        if (value % 3 == 0) {
+                            // long enough for the linger timer to flush a partial batch now and then
+                            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(900));
+                        }
+                    }
+                })
+                .lift(new OperatorBatchedObserveOn<Integer>(Schedulers.computation(), 4, 1, TimeUnit.MILLISECONDS))
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertReceivedOnNext(expected);
+    }
+
+    @Test
+    public void partialBatchIsDeliveredAfterLinger() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.lift(new OperatorBatchedObserveOn<Integer>(scheduler, 10, 5, TimeUnit.MILLISECONDS))
+                .subscribe(testObserver);
+
+        subject.onNext(1);
+        subject.onNext(2);
+        scheduler.advanceTimeBy(4, TimeUnit.MILLISECONDS);
+        verifyZeroInteractions(testObserver);
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        verify(testObserver).onNext(1);
+        verify(testObserver).onNext(2);
+
+        subject.onCompleted();
+        scheduler.triggerActions();
+        verifyNotificationSequence(testObserver, Arrays.asList(1, 2));
+    }
+
+    @Test
+    public void completionFlushesPendingBatchFirst() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.lift(new OperatorBatchedObserveOn<Integer>(scheduler, 10, 0, TimeUnit.MILLISECONDS))
+                .subscribe(testObserver);
+
+        subject.onNext(1);
+        subject.onCompleted();
+        scheduler.triggerActions();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1));
+    }
+
+    @Test
+    public void errorIsDeliveredAfterPendingValues() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.lift(new OperatorBatchedObserveOn<Integer>(scheduler, 2, 0, TimeUnit.MILLISECONDS))
+                .subscribe(testObserver);
+
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.onNext(3);
+        subject.onError(new IllegalStateException());
+        scheduler.triggerActions();
+
+        verify(testObserver).onNext(1);
+        verify(testObserver).onNext(2);
+        verify(testObserver).onNext(3);
+        verify(testObserver).onError(any(IllegalStateException.class));
+        verifyNoMoreInteractions(testObserver);
+    }
+
+    @Test
+    public void deliversOnlyWhatChildRequested() {
+        TestScheduler scheduler = new TestScheduler();
+        final List<Long> received = new ArrayList<Long>();
+        Subscriber<Long> subscriber = new Subscriber<Long>() {
+            @Override
+            public void onStart() {
+                request(3);
+            }
+
+            @Override
+            public void onNext(Long value) {
+                received.add(value);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+
+        OnSubscribeGenerate.range(0, 1000)
+                .lift(new OperatorBatchedObserveOn<Long>(scheduler, 2, 0, TimeUnit.MILLISECONDS))
+                .subscribe(subscriber);
+        scheduler.triggerActions();
+
+        assertThat(received, is(Arrays.asList(0L, 1L, 2L)));
+    }
+
+    @Test
+    public void streamsHundredMillionElementsThroughSlowSubscriberWithBoundedBuffer() throws InterruptedException {
+        final int prefetch = 1024;
+        final long count = 100000000L;
+        final AtomicLong generated = new AtomicLong();
+        final long[] maxInFlight = new long[1];
+        final long[] received = new long[1];
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        OnSubscribeGenerate.generate(count, new OnSubscribeGenerate.Generator<Long>() {
+            @Override
+            public Long call(long index) {
+                generated.lazySet(index + 1);
+                return index;
+            }
+        }).lift(new OperatorBatchedObserveOn<Long>(Schedulers.computation(), 256, 1, TimeUnit.MILLISECONDS, prefetch))
+                .subscribe(new Subscriber<Long>() {
+                    @Override
+                    public void onNext(Long value) {
+                        long inFlight = generated.get() - ++received[0];
+                        if (inFlight > maxInFlight[0]) {
+                            maxInFlight[0] = inFlight;
+                        }
+                        if (received[0] % 10000000 == 0) {
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.countDown();
+                    }
+                });
+
+        assertTrue(completed.await(2, TimeUnit.MINUTES));
+        assertThat(received[0], is(count));
+        assertTrue("in flight " + maxInFlight[0], maxInFlight[0] <= prefetch);
+    }
+}
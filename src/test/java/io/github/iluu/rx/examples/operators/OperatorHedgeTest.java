@@ -0,0 +1,202 @@
+package io.github.iluu.rx.examples.operators;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.Subscriber;
+import rx.functions.Func0;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OperatorHedgeTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final PublishSubject<Integer> primary = PublishSubject.create();
+    private final PublishSubject<Integer> backup = PublishSubject.create();
+
+    @Test
+    public void backupStartsAfterDelayAndFirstResponseWins() {
+        OperatorHedge<Integer> hedge = OperatorHedge.hedge(backup, 50, TimeUnit.MILLISECONDS, scheduler);
+        primary.lift(hedge).subscribe(testObserver);
+
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        backup.onNext(2);
+        primary.onNext(1);
+        backup.onCompleted();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2));
+        assertThat(hedge.getHedgesFired(), is(1L));
+        assertThat(hedge.getHedgesWon(), is(1L));
+    }
+
+    @Test
+    public void primaryRespondingInTimeIsNotHedged() {
+        OperatorHedge<Integer> hedge = OperatorHedge.hedge(backup, 50, TimeUnit.MILLISECONDS, scheduler);
+        primary.lift(hedge).subscribe(testObserver);
+
+        scheduler.advanceTimeBy(40, TimeUnit.MILLISECONDS);
+        primary.onNext(1);
+        scheduler.advanceTimeBy(40, TimeUnit.MILLISECONDS);
+        backup.onNext(2);
+        primary.onNext(3);
+        primary.onCompleted();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1, 3));
+        assertThat(hedge.getHedgesFired(), is(0L));
+    }
+
+    @Test
+    public void timeoutFallsBackToBackup() {
+        OperatorHedge<Integer> timeout = OperatorHedge.timeout(Observable.from(3, 4), 1, TimeUnit.SECONDS, scheduler);
+        primary.lift(timeout).subscribe(testObserver);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        primary.onNext(1);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(3, 4));
+        assertThat(timeout.getTimeouts(), is(1L));
+        assertThat(timeout.getHedgesWon(), is(1L));
+    }
+
+    @Test
+    public void primaryEmittingAfterTimeoutIsIgnored() {
+        final List<Subscriber<? super Integer>> subscribed = new ArrayList<Subscriber<? super Integer>>();
+        Observable<Integer> stubborn = Observable.create(new Observable.OnSubscribe<Integer>() {
+            @Override
+            public void call(Subscriber<? super Integer> subscriber) {
+                subscribed.add(subscriber);
+            }
+        });
+        OperatorHedge<Integer> timeout = OperatorHedge.timeout(backup, 1, TimeUnit.SECONDS, scheduler);
+        stubborn.lift(timeout).subscribe(testObserver);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        // ignores that it was unsubscribed
+        subscribed.get(0).onNext(1);
+        subscribed.get(0).onError(new IllegalStateException());
+        backup.onNext(3);
+        backup.onCompleted();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(3));
+        assertThat(timeout.getTimeouts(), is(1L));
+    }
+
+    @Test
+    public void primaryErrorResumesWithBackup() {
+        OperatorHedge<Integer> hedge = OperatorHedge.hedge(Observable.from(3, 4), 50, TimeUnit.MILLISECONDS,
+                scheduler);
+        primary.lift(hedge).subscribe(testObserver);
+
+        primary.onError(new Throwable());
+
+        verifyNotificationSequence(testObserver, Arrays.asList(3, 4));
+    }
+
+    @Test
+    public void errorIsPassedOnWhenBothSidesFail() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+        primary.lift(OperatorHedge.hedge(backup, 50, TimeUnit.MILLISECONDS, scheduler)).subscribe(subscriber);
+
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        primary.onError(new IllegalStateException());
+        assertTrue(subscriber.getOnErrorEvents().isEmpty());
+        backup.onError(new IllegalArgumentException());
+
+        assertThat(subscriber.getOnErrorEvents().get(0), instanceOf(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void timeoutWithFailedBackupFails() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+        primary.lift(new OperatorHedge<Integer>(backup, 50, 200, TimeUnit.MILLISECONDS, scheduler))
+                .subscribe(subscriber);
+
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        backup.onError(new IllegalStateException());
+        scheduler.advanceTimeBy(150, TimeUnit.MILLISECONDS);
+
+        assertThat(subscriber.getOnErrorEvents().get(0), instanceOf(TimeoutException.class));
+    }
+
+    @Test
+    public void hedgingCutsNinetyNinthPercentile() {
+        Random random = new Random(7);
+        Observable<Integer> request = simulatedRequest(random);
+
+        List<Long> plain = runRequests(request, null, 1000);
+        OperatorHedge<Integer> hedge = OperatorHedge.hedge(request, 30, TimeUnit.MILLISECONDS, scheduler);
+        List<Long> hedged = runRequests(request, hedge, 1000);
+
+        assertTrue("p99 without hedging " + p99(plain), p99(plain) >= 1000);
+        assertTrue("p99 with hedging " + p99(hedged), p99(hedged) < 100);
+        // only the slow requests, about 3%, are hedged, and their backup usually wins
+        assertTrue(hedge.getHedgesFired() < 60);
+        assertTrue(hedge.getHedgesWon() > hedge.getHedgesFired() / 2);
+    }
+
+    /**
+     * Responds in 10-20 ms, or in a second for 3% of the subscriptions.
+     */
+    private Observable<Integer> simulatedRequest(final Random random) {
+        return Observable.defer(new Func0<Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call() {
+                long latency = random.nextInt(100) < 3 ? 1000 : 10 + random.nextInt(10);
+                return Observable.from(1).delay(latency, TimeUnit.MILLISECONDS, scheduler);
+            }
+        });
+    }
+
+    private List<Long> runRequests(Observable<Integer> request, OperatorHedge<Integer> hedge, int count) {
+        final List<Long> latencies = new ArrayList<Long>();
+        final long start = scheduler.now();
+        for (int i = 0; i < count; i++) {
+            Observable<Integer> observable = hedge == null ? request : request.lift(hedge);
+            observable.subscribe(new Subscriber<Integer>() {
+                @Override
+                public void onNext(Integer integer) {
+                    latencies.add(scheduler.now() - start);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+        }
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        assertThat(latencies.size(), is(count));
+        return latencies;
+    }
+
+    private static long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<Long>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
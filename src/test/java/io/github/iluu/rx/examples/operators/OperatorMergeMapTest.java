@@ -0,0 +1,196 @@
+package io.github.iluu.rx.examples.operators;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OperatorMergeMapTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Test
+    public void combinesNewObservableWithEachSourceValue() {
+        Observable.from(1, 3).lift(new OperatorMergeMap<Integer, Integer>(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer integer) {
+                return Observable.from(integer, integer * 2);
+            }
+        }, 1)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1, 2, 3, 6));
+    }
+
+    @Test
+    public void subscribesToAtMostMaxConcurrencyInners() {
+        final List<PublishSubject<Integer>> inners = new ArrayList<PublishSubject<Integer>>();
+        final AtomicInteger outerEmitted = new AtomicInteger();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.range(0, 10).doOnNext(new Action1<Integer>() {
+            @Override
+            public void call(Integer integer) {
+                outerEmitted.incrementAndGet();
+            }
+        }).lift(new OperatorMergeMap<Integer, Integer>(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer integer) {
+                PublishSubject<Integer> inner = PublishSubject.create();
+                inners.add(inner);
+                return inner;
+            }
+        }, 3)).subscribe(subscriber);
+
+        assertThat(inners.size(), is(3));
+        assertThat(outerEmitted.get(), is(3));
+
+        inners.get(1).onNext(10);
+        inners.get(1).onCompleted();
+
+        assertThat(inners.size(), is(4));
+        assertThat(outerEmitted.get(), is(4));
+
+        for (int i = 0; i < 10; i++) {
+            inners.get(i).onCompleted();
+        }
+        subscriber.assertReceivedOnNext(Arrays.asList(10));
+        subscriber.assertTerminalEvent();
+        subscriber.assertNoErrors();
+    }
+
+    @Test
+    public void queuesOuterValuesOfSourceIgnoringBackpressure() {
+        final List<PublishSubject<Integer>> inners = new ArrayList<PublishSubject<Integer>>();
+        PublishSubject<Integer> outer = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        outer.lift(new OperatorMergeMap<Integer, Integer>(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer integer) {
+                PublishSubject<Integer> inner = PublishSubject.create();
+                inners.add(inner);
+                return inner;
+            }
+        }, 2)).subscribe(subscriber);
+
+        for (int i = 0; i < 5; i++) {
+            outer.onNext(i);
+        }
+        outer.onCompleted();
+        assertThat(inners.size(), is(2));
+
+        for (int i = 0; i < 5; i++) {
+            inners.get(i).onNext(i);
+            inners.get(i).onCompleted();
+        }
+
+        subscriber.assertReceivedOnNext(Arrays.asList(0, 1, 2, 3, 4));
+        subscriber.assertTerminalEvent();
+    }
+
+    @Test
+    public void emitsOnlyWhatChildRequested() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onStart() {
+                request(3);
+            }
+        };
+
+        Observable.range(0, 100).lift(new OperatorMergeMap<Integer, Integer>(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer integer) {
+                return Observable.range(integer * 1000, 1000);
+            }
+        }, 4)).subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList(0, 1, 2));
+        subscriber.requestMore(2);
+        assertThat(subscriber.getOnNextEvents().size(), is(5));
+    }
+
+    @Test
+    public void mergesAsynchronousInners() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.range(0, 2000).lift(new OperatorMergeMap<Integer, Integer>(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer integer) {
+                return Observable.range(integer * 10, 10).subscribeOn(Schedulers.computation());
+            }
+        }, 8)).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertNoErrors();
+        List<Integer> received = subscriber.getOnNextEvents();
+        assertThat(received.size(), is(20000));
+        assertThat(new HashSet<Integer>(received).size(), is(20000));
+        assertThat(Collections.max(received), is(19999));
+    }
+
+    @Test
+    public void innerErrorUnsubscribesOtherInners() {
+        final PublishSubject<Integer> failing = PublishSubject.create();
+        final List<Subscriber<? super Integer>> others = new ArrayList<Subscriber<? super Integer>>();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.from(0, 1).lift(new OperatorMergeMap<Integer, Integer>(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer integer) {
+                if (integer == 1) {
+                    return failing;
+                }
+                return Observable.create(new Observable.OnSubscribe<Integer>() {
+                    @Override
+                    public void call(Subscriber<? super Integer> inner) {
+                        others.add(inner);
+                    }
+                });
+            }
+        }, 2)).subscribe(subscriber);
+
+        IllegalStateException error = new IllegalStateException();
+        failing.onError(error);
+
+        assertThat(subscriber.getOnErrorEvents(), is(Collections.<Throwable>singletonList(error)));
+        assertTrue(others.get(0).isUnsubscribed());
+    }
+
+    @Test
+    public void passesNullValues() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.from(1, null).lift(new OperatorMergeMap<Integer, Integer>(new Func1<Integer, Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call(Integer integer) {
+                return Observable.from(integer, null);
+            }
+        }, 1)).subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList(1, null, null, null));
+        assertThat(subscriber.getOnCompletedEvents().size(), is(1));
+    }
+}
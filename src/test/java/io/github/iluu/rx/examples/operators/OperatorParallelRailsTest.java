@@ -0,0 +1,188 @@
+package io.github.iluu.rx.examples.operators;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OperatorParallelRailsTest {
+
+    private static final Func1<Integer, Integer> UNEVEN_WORK = new Func1<Integer, Integer>() {
+        @Override
+        public Integer call(Integer value) {
+            if (value % 7 == 0) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value * 2;
+        }
+    };
+
+    private static final Func1<Integer, Boolean> DIVISIBLE_BY_THREE = new Func1<Integer, Boolean>() {
+        @Override
+        public Boolean call(Integer value) {
+            return value % 3 == 0;
+        }
+    };
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Test
+    public void orderedRailsKeepSourceOrder() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.range(1, 2000)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), 4, UNEVEN_WORK, true))
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertReceivedOnNext(doubled(1, 2000));
+        assertThat(subscriber.getOnCompletedEvents().size(), is(1));
+    }
+
+    @Test
+    public void unorderedRailsDeliverEveryValue() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.range(1, 2000)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), 4, UNEVEN_WORK, false))
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        List<Integer> received = new ArrayList<Integer>(subscriber.getOnNextEvents());
+        Collections.sort(received);
+        assertThat(received, is(doubled(1, 2000)));
+        assertThat(subscriber.getOnCompletedEvents().size(), is(1));
+    }
+
+    @Test
+    public void filteredValuesAreSkippedInOrder() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.range(1, 10)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), 3, UNEVEN_WORK,
+                        DIVISIBLE_BY_THREE, true, 3))
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertReceivedOnNext(Arrays.asList(6, 12, 18));
+    }
+
+    @Test
+    public void childGetsOnlyWhatItRequested() throws InterruptedException {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onStart() {
+                request(5);
+            }
+        };
+
+        Observable.range(1, 1000)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), 2, UNEVEN_WORK, true))
+                .subscribe(subscriber);
+
+        Thread.sleep(100);
+        subscriber.assertReceivedOnNext(doubled(1, 5));
+        assertThat(subscriber.getOnCompletedEvents().size(), is(0));
+    }
+
+    @Test
+    public void errorOnRailIsDelivered() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.range(1, 100)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), 4,
+                        new Func1<Integer, Integer>() {
+                            @Override
+                            public Integer call(Integer value) {
+                                if (value == 50) {
+                                    throw new IllegalStateException();
+                                }
+                                return value;
+                            }
+                        }, true))
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        assertThat(subscriber.getOnErrorEvents().size(), is(1));
+        assertThat(subscriber.getOnErrorEvents().get(0), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void nullValuesPassThrough() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.from(1, null, 3)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.computation(), 2,
+                        new Func1<Integer, Integer>() {
+                            @Override
+                            public Integer call(Integer value) {
+                                return value;
+                            }
+                        }, true))
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertReceivedOnNext(Arrays.asList(1, null, 3));
+    }
+
+    @Test
+    public void orderedRailsOnSingleThreadBehaveLikeMap() {
+        Observable.range(1, 3)
+                .lift(new OperatorParallelRails<Integer, Integer>(Schedulers.immediate(), 2, UNEVEN_WORK, true))
+                .subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 4, 6));
+    }
+
+    @Test
+    public void orderedRailsFailOnSourceIgnoringBackpressure() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onStart() {
+                request(1);
+            }
+        };
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.lift(new OperatorParallelRails<Integer, Integer>(Schedulers.trampoline(), 1, UNEVEN_WORK,
+                null, true, 2)).subscribe(subscriber);
+
+        for (int i = 1; i <= 4; i++) {
+            subject.onNext(i);
+        }
+
+        subscriber.assertReceivedOnNext(Arrays.asList(2));
+        assertThat(subscriber.getOnErrorEvents().get(0), instanceOf(MissingBackpressureException.class));
+    }
+
+    private static List<Integer> doubled(int from, int to) {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = from; i <= to; i++) {
+            values.add(i * 2);
+        }
+        return values;
+    }
+}
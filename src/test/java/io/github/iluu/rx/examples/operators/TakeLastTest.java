@@ -0,0 +1,98 @@
+package io.github.iluu.rx.examples.operators;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TakeLastTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Test
+    public void emitsOnlyGivenNumberOfLastElements() {
+        Observable.from(1, 2, 3, 4, 5, 6, 7, 8).lift(TakeLast.<Integer>last(2)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(7, 8));
+    }
+
+    @Test
+    public void emitsEverythingWhenFewerValuesThanSlots() {
+        Observable.from(1, 2).lift(TakeLast.<Integer>last(5)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1, 2));
+    }
+
+    @Test
+    public void emptySourceOnlyCompletes() {
+        Observable.<Integer>empty().lift(TakeLast.lastOfInts(2)).subscribe(testObserver);
+
+        verify(testObserver, never()).onNext(any(Integer.class));
+        verify(testObserver).onCompleted();
+    }
+
+    @Test
+    public void primitiveRingsWrapAround() {
+        TestSubscriber<Long> longs = new TestSubscriber<Long>();
+
+        Observable.range(1, 10).lift(TakeLast.lastOfInts(3)).subscribe(testObserver);
+        Observable.from(5L, 6L, 7L, 8L).lift(TakeLast.lastOfLongs(3)).subscribe(longs);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(8, 9, 10));
+        longs.assertReceivedOnNext(Arrays.asList(6L, 7L, 8L));
+    }
+
+    @Test
+    public void timedVariantEvictsOldValues() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.lift(TakeLast.<Integer>last(10, TimeUnit.SECONDS, scheduler, 100)).subscribe(testObserver);
+
+        subject.onNext(1);
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        subject.onNext(2);
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        subject.onNext(3);
+        scheduler.advanceTimeBy(6, TimeUnit.SECONDS);
+        subject.onCompleted();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(3));
+    }
+
+    @Test
+    public void timedVariantKeepsAtMostCapacity() {
+        TestScheduler scheduler = new TestScheduler();
+
+        Observable.range(1, 1000).lift(TakeLast.<Integer>last(1, TimeUnit.MINUTES, scheduler, 2))
+                .subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(999, 1000));
+    }
+
+    @Test
+    public void errorIsPassedWithoutValues() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.from(1, 2).concatWith(Observable.<Integer>error(new IllegalStateException()))
+                .lift(TakeLast.<Integer>last(2)).subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Collections.<Integer>emptyList());
+        subscriber.assertTerminalEvent();
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.iluu.rx.examples.operators;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WindowedAggregatesTest {
+
+    @Mock
+    private Observer<Long> testObserver;
+
+    @Mock
+    private Observer<Double> averageObserver;
+
+    @Test
+    public void sumRollsOverLastValues() {
+        Observable.from(1, 2, 3, 4, 5).lift(WindowedAggregates.sum(3)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1L, 3L, 6L, 9L, 12L));
+    }
+
+    @Test
+    public void averageRollsOverLastValues() {
+        Observable.from(2, 4, 6, 8).lift(WindowedAggregates.average(2)).subscribe(averageObserver);
+
+        verifyNotificationSequence(averageObserver, Arrays.asList(2.0, 3.0, 5.0, 7.0));
+    }
+
+    @Test
+    public void minAndMaxFollowTheWindow() {
+        TestSubscriber<Long> min = new TestSubscriber<Long>();
+        TestSubscriber<Long> max = new TestSubscriber<Long>();
+        Observable<Integer> values = Observable.from(5, 1, 4, 3, 2, 6);
+
+        values.lift(WindowedAggregates.min(3)).subscribe(min);
+        values.lift(WindowedAggregates.max(3)).subscribe(max);
+
+        min.assertReceivedOnNext(Arrays.asList(5L, 1L, 1L, 1L, 2L, 2L));
+        max.assertReceivedOnNext(Arrays.asList(5L, 5L, 5L, 4L, 4L, 6L));
+    }
+
+    @Test
+    public void maxMatchesRecomputedWindowOnRandomValues() {
+        Random random = new Random(42);
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            values.add(random.nextInt(1000) - 500);
+        }
+        TestSubscriber<Long> subscriber = new TestSubscriber<Long>();
+
+        Observable.from(values).lift(WindowedAggregates.max(37)).subscribe(subscriber);
+
+        List<Long> expected = new ArrayList<Long>();
+        for (int i = 0; i < values.size(); i++) {
+            expected.add((long) Collections.max(values.subList(Math.max(0, i - 36), i + 1)));
+        }
+        subscriber.assertReceivedOnNext(expected);
+    }
+
+    @Test
+    public void percentileIsWithinBucketError() {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 1; i <= 2000; i++) {
+            values.add(i * 100);
+        }
+        TestSubscriber<Long> subscriber = new TestSubscriber<Long>();
+
+        Observable.from(values).lift(WindowedAggregates.percentile(50, 1000)).subscribe(subscriber);
+
+        List<Long> medians = subscriber.getOnNextEvents();
+        assertWithinSixteenth(medians.get(999), 50000);
+        // window now holds 1001..2000
+        assertWithinSixteenth(medians.get(1999), 150000);
+    }
+
+    @Test
+    public void timeWindowEvictsOldValues() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.lift(WindowedAggregates.sum(10, TimeUnit.SECONDS, scheduler)).subscribe(testObserver);
+
+        subject.onNext(1);
+        scheduler.advanceTimeBy(4, TimeUnit.SECONDS);
+        subject.onNext(2);
+        scheduler.advanceTimeBy(6, TimeUnit.SECONDS);
+        subject.onNext(4);
+        scheduler.advanceTimeBy(20, TimeUnit.SECONDS);
+        subject.onNext(8);
+        subject.onCompleted();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1L, 3L, 6L, 8L));
+    }
+
+    @Test
+    public void timeWindowGrowsWithBursts() {
+        TestScheduler scheduler = new TestScheduler();
+        TestSubscriber<Long> subscriber = new TestSubscriber<Long>();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.lift(WindowedAggregates.max(1, TimeUnit.SECONDS, scheduler)).subscribe(subscriber);
+
+        for (int i = 0; i < 100; i++) {
+            subject.onNext(i);
+        }
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        subject.onNext(-1);
+
+        List<Long> received = subscriber.getOnNextEvents();
+        assertThat(received.get(99), is(99L));
+        assertThat(received.get(100), is(-1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowMustHoldValues() {
+        WindowedAggregates.sum(0);
+    }
+
+    private static void assertWithinSixteenth(long actual, long expected) {
+        assertTrue(actual + " not within 1/16 of " + expected, Math.abs(actual - expected) <= expected / 16);
+    }
+}
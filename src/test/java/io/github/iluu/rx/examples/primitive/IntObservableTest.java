@@ -0,0 +1,150 @@
+package io.github.iluu.rx.examples.primitive;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Action1;
+import rx.schedulers.Schedulers;
+
+import java.util.Arrays;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IntObservableTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Mock
+    private IntObserver intObserver;
+
+    private final IntFunc1 multiply = new IntFunc1() {
+        @Override
+        public int call(int value) {
+            return value * 2;
+        }
+    };
+
+    private final IntPredicate even = new IntPredicate() {
+        @Override
+        public boolean call(int value) {
+            return value % 2 == 0;
+        }
+    };
+
+    private final IntFunc2 sum = new IntFunc2() {
+        @Override
+        public int call(int first, int second) {
+            return first + second;
+        }
+    };
+
+    @Test
+    public void rangeMapEmitsTransformedValuesInOrder() {
+        IntObservable.range(1, 3).map(multiply).subscribe(intObserver);
+
+        InOrder inOrder = inOrder(intObserver);
+        inOrder.verify(intObserver).onNext(2);
+        inOrder.verify(intObserver).onNext(4);
+        inOrder.verify(intObserver).onNext(6);
+        inOrder.verify(intObserver).onCompleted();
+        verifyNoMoreInteractions(intObserver);
+    }
+
+    @Test
+    public void filterAndScanWorkLikeTheirBoxedCounterparts() {
+        IntObservable.range(1, 6).filter(even).scan(sum).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 6, 12));
+    }
+
+    @Test
+    public void scanWithInitialValueEmitsItFirst() {
+        IntObservable.range(1, 3).scan(10, sum).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(10, 11, 13, 16));
+    }
+
+    @Test
+    public void doOnNextCallsActionForEachValue() {
+        IntAction1 action = mock(IntAction1.class);
+
+        IntObservable.range(5, 2).doOnNext(action).subscribe(intObserver);
+
+        verify(action).call(5);
+        verify(action).call(6);
+        verifyNoMoreInteractions(action);
+    }
+
+    @Test
+    public void fromUnboxesObservableValues() {
+        IntObservable.from(Observable.from(1, 2)).map(multiply).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 4));
+    }
+
+    @Test
+    public void errorInMapStopsTheSource() {
+        IntObservable.range(1, 10).map(new IntFunc1() {
+            @Override
+            public int call(int value) {
+                if (value == 2) {
+                    throw new IllegalStateException();
+                }
+                return value;
+            }
+        }).subscribe(intObserver);
+
+        verify(intObserver).onNext(1);
+        verify(intObserver).onError(any(IllegalStateException.class));
+        verifyNoMoreInteractions(intObserver);
+    }
+
+    @Test
+    public void rangeEndingAtMaxValueStopsThere() {
+        IntObservable.range(Integer.MAX_VALUE - 1, 2).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rangePastMaxValueIsRejected() {
+        IntObservable.range(Integer.MAX_VALUE, 2);
+    }
+
+    @Test
+    public void takeLastEmitsOnlyGivenNumberOfLastElements() {
+        IntObservable.range(1, 8).takeLast(2).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(7, 8));
+    }
+
+    @Test
+    public void takeLastOfHundredMillionValuesKeepsOnlyItsRing() {
+        // runs in the 64 MB test heap, an unbounded buffer would not fit
+        IntObservable.range(0, 100000000).takeLast(3).toObservable().subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(99999997, 99999998, 99999999));
+    }
+
+    @Test
+    public void subscribeOnRunsPipelineOnScheduler() {
+        IntObservable.range(1, 2).subscribeOn(Schedulers.newThread()).toObservable()
+                .toBlocking().forEach(new Action1<Integer>() {
+            @Override
+            public void call(Integer integer) {
+                testObserver.onNext(integer);
+            }
+        });
+
+        verify(testObserver).onNext(1);
+        verify(testObserver).onNext(2);
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.iluu.rx.examples.schedulers;
+
+import org.junit.Test;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadSchedulerTest {
+
+    private final Scheduler scheduler = new VirtualThreadScheduler(Executors.defaultThreadFactory());
+
+    @Test
+    public void workerRunsActionsInOrderOnItsOwnThread() throws InterruptedException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        final List<Integer> order = new ArrayList<Integer>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        for (int i = 0; i < 3; i++) {
+            final int value = i;
+            worker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    order.add(value);
+                    threads.add(Thread.currentThread());
+                }
+            });
+        }
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertThat(order, is(Arrays.asList(0, 1, 2)));
+        assertThat(threads.get(0), is(threads.get(2)));
+        assertThat(threads.get(0), is(not(Thread.currentThread())));
+        worker.unsubscribe();
+    }
+
+    @Test
+    public void delayedActionIsNotRunAfterUnsubscribe() throws InterruptedException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        final CountDownLatch ran = new CountDownLatch(1);
+
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                ran.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        worker.unsubscribe();
+
+        assertThat(ran.await(150, TimeUnit.MILLISECONDS), is(false));
+    }
+
+    @Test
+    public void unsubscribingCancelsTheTimer() {
+        Scheduler.Worker worker = scheduler.createWorker();
+        Action0 action = new Action0() {
+            @Override
+            public void call() {
+            }
+        };
+        int before = DelayTimer.pendingCount();
+
+        Subscription subscription = worker.schedule(action, 1, TimeUnit.HOURS);
+        worker.schedule(action, 1, TimeUnit.HOURS);
+        assertThat(DelayTimer.pendingCount(), is(before + 2));
+        subscription.unsubscribe();
+        assertThat(DelayTimer.pendingCount(), is(before + 1));
+        worker.unsubscribe();
+        assertThat(DelayTimer.pendingCount(), is(before));
+    }
+
+    @Test
+    public void subscribeOnMovesBlockingWorkToWorker() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        Observable.from(1, 2).subscribeOn(scheduler).map(new Func1<Integer, Integer>() {
+            @Override
+            public Integer call(Integer integer) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return integer * 2;
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        subscriber.assertReceivedOnNext(Arrays.asList(2, 4));
+        assertThat(subscriber.getLastSeenThread(), is(not(Thread.currentThread())));
+    }
+
+    @Test
+    public void createUsesVirtualThreadsWhenRuntimeHasThem() throws Exception {
+        assumeTrue(VirtualThreadScheduler.isSupported());
+        final Boolean[] virtual = new Boolean[1];
+        final CountDownLatch done = new CountDownLatch(1);
+
+        VirtualThreadScheduler.create().createWorker().schedule(new Action0() {
+            @Override
+            public void call() {
+                try {
+                    virtual[0] = (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+                } catch (Exception e) {
+                    virtual[0] = false;
+                }
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertThat(virtual[0], is(true));
+    }
+}
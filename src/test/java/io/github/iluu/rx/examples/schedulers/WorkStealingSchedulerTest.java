@@ -0,0 +1,225 @@
+package io.github.iluu.rx.examples.schedulers;
+
+import org.junit.After;
+import org.junit.Test;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class WorkStealingSchedulerTest {
+
+    private final WorkStealingScheduler scheduler = new WorkStealingScheduler(2, 8);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void workerRunsActionsInOrderOneAtATime() throws InterruptedException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        final List<Integer> order = new ArrayList<Integer>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        for (int i = 0; i < 10000; i++) {
+            final int value = i;
+            worker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    if (running.getAndIncrement() != 0) {
+                        overlapped.set(true);
+                    }
+                    order.add(value);
+                    running.decrementAndGet();
+                }
+            });
+        }
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+        for (int i = 0; i < order.size(); i++) {
+            assertThat(order.get(i), is(i));
+        }
+        assertThat(order.size(), is(10000));
+    }
+
+    @Test
+    public void idleWorkerScheduledFromPoolThreadRunsInline() throws InterruptedException {
+        final Scheduler.Worker first = scheduler.createWorker();
+        final Scheduler.Worker second = scheduler.createWorker();
+        final StringBuilder trace = new StringBuilder();
+        final AtomicReference<Thread> secondThread = new AtomicReference<Thread>();
+        final AtomicReference<Thread> firstThread = new AtomicReference<Thread>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        first.schedule(new Action0() {
+            @Override
+            public void call() {
+                firstThread.set(Thread.currentThread());
+                second.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        secondThread.set(Thread.currentThread());
+                        trace.append("second ");
+                    }
+                });
+                trace.append("first");
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertThat(trace.toString(), is("second first"));
+        assertThat(secondThread.get(), is(firstThread.get()));
+    }
+
+    @Test
+    public void actionScheduledOnItsOwnWorkerIsTrampolined() throws InterruptedException {
+        final Scheduler.Worker worker = scheduler.createWorker();
+        final StringBuilder trace = new StringBuilder();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                worker.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        trace.append("inner");
+                        done.countDown();
+                    }
+                });
+                trace.append("outer ");
+            }
+        });
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertThat(trace.toString(), is("outer inner"));
+    }
+
+    @Test
+    public void idleThreadStealsWorkQueuedBehindABlockedOne() throws InterruptedException {
+        final WorkStealingScheduler noInlining = new WorkStealingScheduler(2, 0);
+        final Scheduler.Worker blocking = noInlining.createWorker();
+        final Scheduler.Worker queued = noInlining.createWorker();
+        final CountDownLatch stolen = new CountDownLatch(1);
+        final AtomicReference<Thread> blockingThread = new AtomicReference<Thread>();
+        final AtomicReference<Thread> queuedThread = new AtomicReference<Thread>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        blocking.schedule(new Action0() {
+            @Override
+            public void call() {
+                blockingThread.set(Thread.currentThread());
+                queued.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        queuedThread.set(Thread.currentThread());
+                        stolen.countDown();
+                    }
+                });
+                try {
+                    if (stolen.await(5, TimeUnit.SECONDS)) {
+                        done.countDown();
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertThat(queuedThread.get(), is(not(blockingThread.get())));
+        noInlining.shutdown();
+    }
+
+    @Test
+    public void cancelledAndDelayedActions() throws InterruptedException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        final AtomicBoolean cancelledRan = new AtomicBoolean();
+        final CountDownLatch delayed = new CountDownLatch(1);
+
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                cancelledRan.set(true);
+            }
+        }, 50, TimeUnit.MILLISECONDS).unsubscribe();
+        long start = System.nanoTime();
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                delayed.countDown();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(delayed.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertFalse(cancelledRan.get());
+    }
+
+    @Test
+    public void unsubscribingCancelsTheTimer() {
+        Scheduler.Worker worker = scheduler.createWorker();
+        Action0 action = new Action0() {
+            @Override
+            public void call() {
+            }
+        };
+        int before = DelayTimer.pendingCount();
+
+        Subscription subscription = worker.schedule(action, 1, TimeUnit.HOURS);
+        worker.schedule(action, 1, TimeUnit.HOURS);
+        assertThat(DelayTimer.pendingCount(), is(before + 2));
+        subscription.unsubscribe();
+        assertThat(DelayTimer.pendingCount(), is(before + 1));
+        worker.unsubscribe();
+        assertThat(DelayTimer.pendingCount(), is(before));
+    }
+
+    @Test
+    public void pipelineHoppingBetweenWorkersKeepsOrder() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 1; i <= 1000; i++) {
+            expected.add(i * 2);
+        }
+
+        Observable.range(1, 1000).subscribeOn(scheduler)
+                .map(new Func1<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer value) {
+                        return value * 2;
+                    }
+                })
+                .observeOn(scheduler)
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertReceivedOnNext(expected);
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.iluu.rx.examples.sources;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observer;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ForkJoinPredicatesTest {
+
+    @Mock
+    private Observer<Boolean> testObserver;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private final Func1<Integer, Boolean> lessThanFive = new Func1<Integer, Boolean>() {
+        @Override
+        public Boolean call(Integer integer) {
+            return integer < 5;
+        }
+    };
+
+    @Test
+    public void allReturnsTrueWhenAllItemsSatisfyPredicate() {
+        ForkJoinPredicates.all(Arrays.asList(1, 2, 3, 4), lessThanFive, pool).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(true));
+    }
+
+    @Test
+    public void existsReturnsFalseWhenNoItemSatisfiesPredicate() {
+        ForkJoinPredicates.exists(Arrays.asList(5, 6, 7), lessThanFive, pool).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(false));
+    }
+
+    @Test
+    public void emptyListAnswersWithoutEvaluating() {
+        TestSubscriber<Boolean> all = new TestSubscriber<Boolean>();
+        TestSubscriber<Boolean> exists = new TestSubscriber<Boolean>();
+
+        ForkJoinPredicates.all(Collections.<Integer>emptyList(), lessThanFive, pool).subscribe(all);
+        ForkJoinPredicates.exists(Collections.<Integer>emptyList(), lessThanFive, pool).subscribe(exists);
+
+        all.assertReceivedOnNext(Arrays.asList(true));
+        exists.assertReceivedOnNext(Arrays.asList(false));
+    }
+
+    @Test
+    public void allStopsWorkersOnceAnswerIsKnown() {
+        List<Integer> values = range(1000000);
+        values.set(10, 2000000);
+        CountingPredicate predicate = new CountingPredicate(lessThan(1000000));
+
+        ForkJoinPredicates.all(values, predicate, pool).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(false));
+        assertTrue("evaluated " + predicate.calls.get(), predicate.calls.get() < values.size() / 2);
+    }
+
+    @Test
+    public void existsFindsLastElement() {
+        List<Integer> values = range(100000);
+
+        ForkJoinPredicates.exists(values, new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer integer) {
+                return integer == 99999;
+            }
+        }, pool).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(true));
+    }
+
+    @Test
+    public void filterKeepsSourceOrder() {
+        List<Integer> values = range(100000);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        ForkJoinPredicates.filter(values, new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer integer) {
+                return integer % 3 == 0;
+            }
+        }, pool).subscribe(subscriber);
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < values.size(); i += 3) {
+            expected.add(i);
+        }
+        subscriber.assertReceivedOnNext(expected);
+        subscriber.assertTerminalEvent();
+    }
+
+    @Test
+    public void filterCopiesListsWithoutRandomAccess() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+
+        ForkJoinPredicates.filter(new LinkedList<Integer>(Arrays.asList(3, 8, 1, 9)), lessThanFive, pool)
+                .subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList(3, 1));
+    }
+
+    @Test
+    public void predicateErrorIsPassedOn() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+        final IllegalStateException failure = new IllegalStateException();
+
+        ForkJoinPredicates.filter(range(100000), new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer integer) {
+                if (integer == 5000) {
+                    throw failure;
+                }
+                return true;
+            }
+        }, pool).subscribe(subscriber);
+
+        assertThat(subscriber.getOnNextEvents().isEmpty(), is(true));
+        assertThat(subscriber.getOnErrorEvents().get(0), sameInstance((Throwable) failure));
+    }
+
+    private static List<Integer> range(int count) {
+        List<Integer> values = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static Func1<Integer, Boolean> lessThan(final int limit) {
+        return new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer integer) {
+                return integer < limit;
+            }
+        };
+    }
+
+    private static class CountingPredicate implements Func1<Integer, Boolean> {
+        final AtomicInteger calls = new AtomicInteger();
+        private final Func1<Integer, Boolean> predicate;
+
+        CountingPredicate(Func1<Integer, Boolean> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public Boolean call(Integer integer) {
+            calls.incrementAndGet();
+            return predicate.call(integer);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.iluu.rx.examples.sources;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observer;
+import rx.Subscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OnSubscribeGenerateTest {
+
+    @Mock
+    private Observer<Long> testObserver;
+
+    @Test
+    public void rangeEmitsAllValuesWhenNotBackpressured() {
+        OnSubscribeGenerate.range(5, 3).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(5L, 6L, 7L));
+    }
+
+    @Test
+    public void generatesOnlyRequestedValues() {
+        final List<Long> generated = new ArrayList<Long>();
+        final List<Long> received = new ArrayList<Long>();
+        OnSubscribeGenerate.generate(Long.MAX_VALUE, new OnSubscribeGenerate.Generator<Long>() {
+            @Override
+            public Long call(long index) {
+                generated.add(index);
+                return index * 10;
+            }
+        }).subscribe(new Subscriber<Long>() {
+            @Override
+            public void onStart() {
+                request(2);
+            }
+
+            @Override
+            public void onNext(Long value) {
+                received.add(value);
+                if (received.size() == 2) {
+                    request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+
+        assertThat(generated, is(Arrays.asList(0L, 1L, 2L)));
+        assertThat(received, is(Arrays.asList(0L, 10L, 20L)));
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.iluu.rx.examples.sources;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observer;
+import rx.Subscriber;
+import rx.functions.Func1;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OnSubscribeMappedFileTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private Observer<String> testObserver;
+
+    @Test
+    public void splitsLinesWithAnyTerminator() throws IOException {
+        File file = write("first\r\nsecond\n\nlast");
+
+        OnSubscribeMappedFile.lines(file).map(OnSubscribeMappedFile.decode(UTF_8)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList("first", "second", "", "last"));
+    }
+
+    @Test
+    public void linesSpanningRegionsAreRemapped() throws IOException {
+        File file = write("one\ntwo three\nfour\nfive six seven\n");
+
+        OnSubscribeMappedFile.lines(file, 16).map(OnSubscribeMappedFile.decode(UTF_8)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList("one", "two three", "four", "five six seven"));
+    }
+
+    @Test
+    public void lineLongerThanRegionIsAnError() throws IOException {
+        File file = write("short\nmuch too long for the region\nshort\n");
+
+        OnSubscribeMappedFile.lines(file, 8).map(OnSubscribeMappedFile.decode(UTF_8)).subscribe(testObserver);
+
+        verify(testObserver).onNext("short");
+        verify(testObserver).onError(any(IllegalStateException.class));
+    }
+
+    @Test
+    public void splitsFixedSizeRecordsWithShorterLastOne() throws IOException {
+        File file = write("aaabbbcccdd");
+
+        OnSubscribeMappedFile.records(file, 3, 7).map(OnSubscribeMappedFile.decode(UTF_8)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList("aaa", "bbb", "ccc", "dd"));
+    }
+
+    @Test
+    public void emptyFileCompletesRightAway() throws IOException {
+        OnSubscribeMappedFile.lines(write("")).map(OnSubscribeMappedFile.decode(UTF_8)).subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, new ArrayList<String>());
+    }
+
+    @Test
+    public void readsOnlyRequestedRecords() throws IOException {
+        File file = write("1\n2\n3\n4\n5\n");
+        final List<String> received = new ArrayList<String>();
+
+        OnSubscribeMappedFile.lines(file).map(OnSubscribeMappedFile.decode(UTF_8)).subscribe(new Subscriber<String>() {
+            @Override
+            public void onStart() {
+                request(2);
+            }
+
+            @Override
+            public void onNext(String line) {
+                received.add(line);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+
+        assertThat(received, is(Arrays.asList("1", "2")));
+    }
+
+    @Test
+    public void recordsAreViewsOfTheMapping() throws IOException {
+        File file = write("abcdef");
+
+        ByteBuffer record = OnSubscribeMappedFile.records(file, 3).skip(1).toBlocking().single();
+
+        assertThat(record.isDirect(), is(true));
+        assertThat(record.remaining(), is(3));
+        assertThat((char) record.get(0), is('d'));
+    }
+
+    @Test
+    public void readsPastTwoGigabytes() throws IOException {
+        File file = folder.newFile("sparse");
+        long size = 3L * 1024 * 1024 * 1024;
+        long marker = size - 1024 * 1024 + 5;
+        RandomAccessFile sparse = new RandomAccessFile(file, "rw");
+        try {
+            sparse.setLength(size);
+            sparse.seek(marker);
+            sparse.write('x');
+        } finally {
+            sparse.close();
+        }
+
+        List<Byte> markers = OnSubscribeMappedFile.records(file, 1024 * 1024)
+                .map(new Func1<ByteBuffer, Byte>() {
+                    @Override
+                    public Byte call(ByteBuffer record) {
+                        return record.get(5);
+                    }
+                }).toList().toBlocking().single();
+
+        assertThat(markers.size(), is(3072));
+        assertThat(markers.get(3071), is((byte) 'x'));
+        assertThat(markers.get(3070), is((byte) 0));
+    }
+
+    private File write(String content) throws IOException {
+        File file = folder.newFile();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes(UTF_8));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
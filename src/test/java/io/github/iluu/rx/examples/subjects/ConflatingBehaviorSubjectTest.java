@@ -0,0 +1,121 @@
+package io.github.iluu.rx.examples.subjects;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observer;
+import rx.Subscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConflatingBehaviorSubjectTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    private final TestScheduler scheduler = new TestScheduler();
+
+    @Test
+    public void emitsDefaultItemWhenNoItemWasYetEmitted() {
+        ConflatingBehaviorSubject<Integer> subject = ConflatingBehaviorSubject.create(scheduler, 2);
+
+        subject.subscribe(testObserver);
+        subject.onCompleted();
+        scheduler.triggerActions();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2));
+    }
+
+    @Test
+    public void emitsLastEmittedItemAndAllTheFollowing() {
+        ConflatingBehaviorSubject<Integer> subject = ConflatingBehaviorSubject.create(scheduler);
+
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.subscribe(testObserver);
+        scheduler.triggerActions();
+        subject.onNext(3);
+        scheduler.triggerActions();
+        subject.onCompleted();
+        scheduler.triggerActions();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 3));
+    }
+
+    @Test
+    public void slowSubscriberGetsOnlyNewestValue() {
+        ConflatingBehaviorSubject<Integer> subject = ConflatingBehaviorSubject.create(scheduler, 0);
+
+        subject.subscribe(testObserver);
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.onNext(3);
+        subject.onCompleted();
+        scheduler.triggerActions();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(3));
+    }
+
+    @Test
+    public void errorIsDeliveredAfterPendingValue() {
+        ConflatingBehaviorSubject<Integer> subject = ConflatingBehaviorSubject.create(scheduler);
+
+        subject.subscribe(testObserver);
+        subject.onNext(1);
+        subject.onError(new IllegalStateException());
+        scheduler.triggerActions();
+
+        verify(testObserver).onNext(1);
+        verify(testObserver).onError(any(IllegalStateException.class));
+        verifyNoMoreInteractions(testObserver);
+    }
+
+    @Test
+    public void fastProducerNeverMakesSubscriberGoBackwards() throws InterruptedException {
+        ConflatingBehaviorSubject<Integer> subject = ConflatingBehaviorSubject.create(Schedulers.computation());
+        final CountDownLatch done = new CountDownLatch(1);
+        final int[] last = {-1};
+        final int[] received = {0};
+        final boolean[] ordered = {true};
+
+        subject.subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                ordered[0] &= value > last[0];
+                last[0] = value;
+                received[0]++;
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        });
+        for (int i = 0; i < 1000000; i++) {
+            subject.onNext(i);
+        }
+        subject.onCompleted();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(ordered[0]);
+        assertThat(last[0], is(999999));
+        assertTrue(received[0] <= 1000000);
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.iluu.rx.examples.subjects;
+
+import org.junit.Test;
+import rx.Observer;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class FanOutSubjectTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void emitsOnlyNewItemsAfterObserverSubscribes() {
+        Observer<Integer> observer = mock(Observer.class);
+        FanOutSubject<Integer> subject = FanOutSubject.create();
+
+        subject.onNext(1);
+        subject.subscribe(observer);
+        subject.onNext(2);
+        subject.onCompleted();
+
+        verifyNotificationSequence(observer, Arrays.asList(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void unsubscribedObserverIsRemoved() {
+        Observer<Integer> first = mock(Observer.class);
+        Observer<Integer> second = mock(Observer.class);
+        FanOutSubject<Integer> subject = FanOutSubject.create();
+
+        Subscription subscription = subject.subscribe(first);
+        subject.subscribe(second);
+        subscription.unsubscribe();
+        subject.onNext(1);
+
+        assertThat(subject.subscriberCount(), is(1));
+        verifyZeroInteractions(first);
+        verify(second).onNext(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void lateSubscriberGetsTerminalEvent() {
+        Observer<Integer> observer = mock(Observer.class);
+        FanOutSubject<Integer> subject = FanOutSubject.create();
+
+        subject.onError(new IllegalStateException());
+        subject.subscribe(observer);
+
+        verify(observer).onError(any(IllegalStateException.class));
+        verifyNoMoreInteractions(observer);
+    }
+
+    @Test
+    public void parallelDeliveryKeepsOrderForEverySubscriber() {
+        FanOutSubject<Integer> subject = FanOutSubject.createParallel(Schedulers.computation(), 4);
+        List<TestSubscriber<Integer>> subscribers = new ArrayList<TestSubscriber<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+            subscribers.add(subscriber);
+            subject.subscribe(subscriber);
+        }
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i);
+            subject.onNext(i);
+        }
+        subject.onCompleted();
+
+        for (TestSubscriber<Integer> subscriber : subscribers) {
+            subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+            subscriber.assertReceivedOnNext(expected);
+            assertThat(subscriber.getOnCompletedEvents().size(), is(1));
+        }
+    }
+
+    @Test
+    public void throwingSubscriberIsDroppedWithoutStallingItsLane() {
+        FanOutSubject<Integer> subject = FanOutSubject.createParallel(Schedulers.computation(), 1);
+        final AtomicInteger calls = new AtomicInteger();
+        final TestSubscriber<Integer> failing = new TestSubscriber<Integer>();
+        subject.unsafeSubscribe(new Subscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                calls.incrementAndGet();
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                failing.onError(e);
+            }
+
+            @Override
+            public void onCompleted() {
+                failing.onCompleted();
+            }
+        });
+        TestSubscriber<Integer> healthy = new TestSubscriber<Integer>();
+        subject.subscribe(healthy);
+
+        for (int i = 0; i < 100; i++) {
+            subject.onNext(i);
+        }
+        subject.onCompleted();
+        healthy.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        failing.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        assertThat(healthy.getOnNextEvents().size(), is(100));
+        assertThat(healthy.getOnCompletedEvents().size(), is(1));
+        assertThat(calls.get(), is(1));
+        assertThat(failing.getOnErrorEvents().size(), is(1));
+        assertThat(failing.getOnCompletedEvents().size(), is(0));
+    }
+
+    @Test
+    public void throwingSubscriberIsDroppedInDirectMode() {
+        FanOutSubject<Integer> subject = FanOutSubject.create();
+        TestSubscriber<Integer> failing = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                throw new IllegalStateException();
+            }
+        };
+        subject.unsafeSubscribe(failing);
+        TestSubscriber<Integer> healthy = new TestSubscriber<Integer>();
+        subject.subscribe(healthy);
+
+        subject.onNext(1);
+        subject.onNext(2);
+
+        assertThat(subject.subscriberCount(), is(1));
+        assertThat(failing.getOnErrorEvents().size(), is(1));
+        healthy.assertReceivedOnNext(Arrays.asList(1, 2));
+    }
+}
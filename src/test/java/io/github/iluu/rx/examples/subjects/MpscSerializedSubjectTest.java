@@ -0,0 +1,239 @@
+package io.github.iluu.rx.examples.subjects;
+
+import org.junit.Test;
+import rx.Observer;
+import rx.Subscriber;
+import rx.exceptions.OnErrorNotImplementedException;
+import rx.functions.Action1;
+import rx.observers.TestSubscriber;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class MpscSerializedSubjectTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void passesEventsOfOneThreadInOrder() {
+        Observer<Integer> observer = mock(Observer.class);
+        MpscSerializedSubject<Integer> subject = MpscSerializedSubject.create();
+        subject.subscribe(observer);
+
+        subject.onNext(1);
+        subject.onNext(null);
+        subject.onNext(3);
+        subject.onCompleted();
+        subject.onNext(4);
+
+        verifyNotificationSequence(observer, Arrays.asList(1, null, 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void errorIsPassedOnOnce() {
+        Observer<Integer> observer = mock(Observer.class);
+        MpscSerializedSubject<Integer> subject = MpscSerializedSubject.create();
+        subject.subscribe(observer);
+        IllegalStateException error = new IllegalStateException();
+
+        subject.onNext(1);
+        subject.onError(error);
+        subject.onCompleted();
+
+        verify(observer).onNext(1);
+        verify(observer).onError(error);
+        verifyNoMoreInteractions(observer);
+    }
+
+    @Test
+    public void throwingSubscriberDoesNotStopTheOthers() {
+        final MpscSerializedSubject<Integer> subject = MpscSerializedSubject.create();
+        TestSubscriber<Integer> healthy = new TestSubscriber<Integer>();
+        subject.subscribe(healthy);
+        subject.subscribe(new Action1<Integer>() {
+            @Override
+            public void call(Integer value) {
+                // queued behind the event being emitted, then passed on after the throw
+                subject.onNext(2);
+                throw new IllegalStateException();
+            }
+        });
+
+        try {
+            subject.onNext(1);
+            fail("Expected the subscriber's exception");
+        } catch (OnErrorNotImplementedException expected) {
+            assertThat(expected.getCause(), instanceOf(IllegalStateException.class));
+        }
+        for (int i = 3; i <= 1000; i++) {
+            subject.onNext(i);
+        }
+        subject.onCompleted();
+
+        assertThat(healthy.getOnNextEvents().size(), is(1000));
+        assertThat(healthy.getOnNextEvents().get(1), is(2));
+        healthy.assertTerminalEvent();
+    }
+
+    @Test
+    public void reentrantCallIsQueuedUntilTheCurrentOneReturns() {
+        final MpscSerializedSubject<Integer> subject = MpscSerializedSubject.create();
+        final StringBuilder trace = new StringBuilder();
+        subject.subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                trace.append("<").append(value);
+                if (value == 1) {
+                    subject.onNext(2);
+                    subject.onCompleted();
+                }
+                trace.append(">");
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+                trace.append("|");
+            }
+        });
+
+        subject.onNext(1);
+
+        assertThat(trace.toString(), is("<1><2>|"));
+    }
+
+    @Test
+    public void manyThreadsAreSerializedWithoutLosingValues() throws InterruptedException {
+        final int threads = 32;
+        final int perThread = 20000;
+        final MpscSerializedSubject<Integer> subject = MpscSerializedSubject.create();
+        final AtomicInteger inside = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final int[] lastOfThread = new int[threads];
+        final AtomicBoolean reordered = new AtomicBoolean();
+        Arrays.fill(lastOfThread, -1);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>(new Observer<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                if (inside.getAndIncrement() != 0) {
+                    overlapped.set(true);
+                }
+                int thread = value / perThread;
+                if (value <= lastOfThread[thread]) {
+                    reordered.set(true);
+                }
+                lastOfThread[thread] = value;
+                inside.decrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        subject.subscribe(subscriber);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int first = t * perThread;
+            producers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        subject.onNext(first + i);
+                    }
+                }
+            });
+            producers[t].start();
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        subject.onCompleted();
+
+        subscriber.assertTerminalEvent();
+        assertThat(subscriber.getOnNextEvents().size(), is(threads * perThread));
+        assertFalse(overlapped.get());
+        assertFalse(reordered.get());
+    }
+
+    @Test
+    public void callersWaitWhileTheBacklogIsFull() throws InterruptedException {
+        final MpscSerializedSubject<Integer> subject = MpscSerializedSubject.create();
+        final CountDownLatch release = new CountDownLatch(1);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>(new Observer<Integer>() {
+            @Override
+            public void onNext(Integer value) {
+                if (value == 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        subject.subscribe(subscriber);
+        final int count = MpscSerializedSubject.MAX_BACKLOG + 100;
+        Thread blocked = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                subject.onNext(0);
+            }
+        });
+        blocked.start();
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i < count; i++) {
+                    subject.onNext(i);
+                }
+            }
+        });
+        while (subscriber.getOnNextEvents().isEmpty() && blocked.isAlive()) {
+            Thread.yield();
+        }
+        producer.start();
+        producer.join(200);
+
+        assertTrue(producer.isAlive());
+        release.countDown();
+        producer.join();
+        blocked.join();
+        subject.onCompleted();
+        assertThat(subscriber.getOnNextEvents().size(), is(count));
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.iluu.rx.examples.subjects;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observer;
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.github.iluu.rx.examples.helpers.TestFunctions.verifyNotificationSequence;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RingReplaySubjectTest {
+
+    @Mock
+    private Observer<Integer> testObserver;
+
+    @Mock
+    private Observer<Long> longObserver;
+
+    @Test
+    public void emitsOnlyCertainNumberOfCachedItems() {
+        RingReplaySubject<Integer> subject = RingReplaySubject.createWithSize(2);
+
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.onNext(3);
+
+        subject.subscribe(testObserver);
+        subject.onCompleted();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(2, 3));
+    }
+
+    @Test
+    public void replaysAndThenEmitsLiveValues() {
+        RingReplaySubject<Integer> subject = RingReplaySubject.createForInts(3);
+
+        subject.onNext(1);
+        subject.subscribe(testObserver);
+        subject.onNext(2);
+        subject.onCompleted();
+
+        verifyNotificationSequence(testObserver, Arrays.asList(1, 2));
+    }
+
+    @Test
+    public void replaysExactSizeWhenRingIsLargerThanRequested() {
+        RingReplaySubject<Integer> subject = RingReplaySubject.createForIntsOffHeap(3);
+        for (int i = 1; i <= 10; i++) {
+            subject.onNext(i);
+        }
+        subject.onCompleted();
+
+        subject.subscribe(testObserver);
+
+        verifyNotificationSequence(testObserver, Arrays.asList(8, 9, 10));
+    }
+
+    @Test
+    public void longVariantsReplayLastValues() {
+        List<RingReplaySubject<Long>> subjects = Arrays.asList(
+                RingReplaySubject.createForLongs(2), RingReplaySubject.createForLongsOffHeap(2));
+        for (RingReplaySubject<Long> subject : subjects) {
+            subject.onNext(Long.MAX_VALUE);
+            subject.onNext(-1L);
+            subject.onNext(7L);
+            subject.onCompleted();
+        }
+
+        for (RingReplaySubject<Long> subject : subjects) {
+            subject.subscribe(longObserver);
+        }
+
+        verify(longObserver, times(2)).onNext(-1L);
+        verify(longObserver, times(2)).onNext(7L);
+        verify(longObserver, times(2)).onCompleted();
+        verifyNoMoreInteractions(longObserver);
+    }
+
+    @Test
+    public void lateSubscriberGetsErrorAfterReplay() {
+        RingReplaySubject<Integer> subject = RingReplaySubject.createWithSize(2);
+        subject.onNext(1);
+        subject.onError(new IllegalStateException());
+
+        subject.subscribe(testObserver);
+
+        verify(testObserver).onNext(1);
+        verify(testObserver).onError(any(IllegalStateException.class));
+        verifyNoMoreInteractions(testObserver);
+    }
+
+    @Test
+    public void unsubscribedObserverGetsNoMoreValues() {
+        RingReplaySubject<Integer> subject = RingReplaySubject.createWithSize(2);
+        Subscription subscription = subject.subscribe(testObserver);
+
+        subject.onNext(1);
+        subscription.unsubscribe();
+        subject.onNext(2);
+
+        verify(testObserver).onNext(1);
+        verifyNoMoreInteractions(testObserver);
+    }
+
+    @Test
+    public void subscriberAddedWhileProducingSeesIncreasingValuesUpToTheLast() throws InterruptedException {
+        final RingReplaySubject<Integer> subject = RingReplaySubject.createForInts(1024);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 1000000; i++) {
+                    subject.onNext(i);
+                }
+                subject.onCompleted();
+            }
+        });
+        producer.start();
+        Thread.sleep(5);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>();
+        subject.subscribe(subscriber);
+        producer.join();
+
+        List<Integer> values = new ArrayList<Integer>(subscriber.getOnNextEvents());
+        subscriber.assertTerminalEvent();
+        for (int i = 1; i < values.size(); i++) {
+            if (values.get(i) <= values.get(i - 1)) {
+                throw new AssertionError(values.get(i) + " after " + values.get(i - 1));
+            }
+        }
+        assertThat(values.get(values.size() - 1), is(999999));
+    }
+
+    @Test
+    public void lappedSubscriberNeverSeesAHalfWrittenValue() throws InterruptedException {
+        final RingReplaySubject<Long> subject = RingReplaySubject.createForLongsOffHeap(16);
+        final List<Long> values = new ArrayList<Long>();
+        TestSubscriber<Long> subscriber = new TestSubscriber<Long>(new Observer<Long>() {
+            @Override
+            public void onCompleted() {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onNext(Long value) {
+                values.add(value);
+                if (values.size() % 64 == 0) {
+                    // fall behind so the producer laps this subscriber
+                    Thread.yield();
+                }
+            }
+        });
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (long i = 0; i < 1000000; i++) {
+                    // both halves carry the sequence, a torn read would mix two of them
+                    subject.onNext(i << 32 | i);
+                }
+                subject.onCompleted();
+            }
+        });
+        subject.subscribe(subscriber);
+        producer.start();
+        producer.join();
+
+        subscriber.assertTerminalEvent();
+        for (int i = 0; i < values.size(); i++) {
+            long value = values.get(i);
+            if (value >>> 32 != (value & 0xffffffffL) || i > 0 && value <= values.get(i - 1)) {
+                throw new AssertionError(Long.toHexString(value) + " at " + i);
+            }
+        }
+        assertThat(values.get(values.size() - 1), is(999999L << 32 | 999999L));
+    }
+}